@@ -0,0 +1,64 @@
+package com.craftycorner.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body serialized once: the UTF-8 JSON and, when it pays off, a gzip copy of it.
+ * Both arrays are shared between requests and must not be modified.
+ */
+public final class EncodedBody {
+
+    /** Bodies smaller than this rarely shrink enough to be worth a gzip copy. */
+    private static final int MIN_GZIP_LENGTH = 512;
+
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private EncodedBody(byte[] json, byte[] gzip) {
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    public static EncodedBody encode(ObjectMapper objectMapper, Object value) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (json.length < MIN_GZIP_LENGTH) {
+            return new EncodedBody(json, null);
+        }
+        byte[] gzip = gzip(json);
+        return new EncodedBody(json, gzip.length < json.length ? gzip : null);
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    /** The gzip copy, or null when the JSON was too small to compress usefully. */
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    long weight() {
+        return 64L + json.length + (gzip != null ? gzip.length : 0);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
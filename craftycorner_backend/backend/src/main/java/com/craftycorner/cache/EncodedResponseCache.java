@@ -0,0 +1,49 @@
+package com.craftycorner.cache;
+
+import com.craftycorner.dto.common.CacheStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Serialized catalog responses, bounded by their size in bytes. Keys include the version of
+ * the data behind the response (its ETag), so a change never has to invalidate anything:
+ * the next request asks for a new key and the outdated bytes age out of the LRU. Concurrent
+ * misses on the same key serialize the body once.
+ */
+@Component
+public class EncodedResponseCache {
+
+    private final WeightedLruCache<String, EncodedBody> cache;
+    private final SingleFlight<String, EncodedBody> encodes = new SingleFlight<>();
+    private final ObjectMapper objectMapper;
+
+    public EncodedResponseCache(
+            ObjectMapper objectMapper,
+            @Value("${app.catalog.encoded-cache.max-bytes:32000000}") long maxBytes
+    ) {
+        this.objectMapper = objectMapper;
+        this.cache = new WeightedLruCache<>("encoded-responses", maxBytes);
+    }
+
+    /** The encoded body for {@code key}, serializing the value from {@code body} on a miss. */
+    public EncodedBody get(String key, Supplier<?> body) {
+        EncodedBody cached = cache.get(key);
+        if (cached != null) return cached;
+
+        return encodes.load(key, () -> {
+            EncodedBody encoded = cache.get(key);
+            if (encoded != null) return encoded;
+
+            encoded = EncodedBody.encode(objectMapper, body.get());
+            cache.put(key, encoded, encoded.weight(), null, cache.stamp());
+            return encoded;
+        });
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,108 @@
+package com.craftycorner.cache;
+
+import com.craftycorner.dto.common.CacheStats;
+import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.event.ProductChangedEvent;
+import com.craftycorner.event.VendorChangedEvent;
+import com.craftycorner.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Product detail DTOs by id, bounded by entry count and expiring after a TTL. Misses on the
+ * same id are coalesced so that a burst of requests for an uncached product runs a single
+ * database load. Entries are dropped as soon as a write to the product (or its vendor)
+ * commits.
+ */
+@Component
+public class ProductDetailCache {
+
+    private final WeightedLruCache<Long, ProductDTO> cache;
+    private final SingleFlight<Long, ProductDTO> loads = new SingleFlight<>();
+    private final ProductRepository productRepository;
+
+    public ProductDetailCache(
+            ProductRepository productRepository,
+            @Value("${app.products.detail-cache.max-entries:10000}") long maxEntries,
+            @Value("${app.products.detail-cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.productRepository = productRepository;
+        this.cache = new WeightedLruCache<>("product-details", maxEntries, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public ProductDTO get(Long id, Function<Long, ProductDTO> loader) {
+        ProductDTO cached = cache.get(id);
+        if (cached != null) return cached;
+
+        return loads.load(id, () -> {
+            // A load that finished just before this one may already have filled the entry
+            ProductDTO loaded = cache.get(id);
+            if (loaded != null) return loaded;
+
+            long stamp = cache.stamp();
+            loaded = loader.apply(id);
+            cache.put(id, loaded, 1, null, stamp);
+            return loaded;
+        });
+    }
+
+    /**
+     * Cached details for {@code ids}, with every miss loaded by one call to {@code loader}.
+     * Ids the loader does not return are absent from the result. Batch misses are not
+     * coalesced with concurrent loads of the same ids.
+     */
+    public Map<Long, ProductDTO> getAll(Collection<Long> ids, Function<List<Long>, List<ProductDTO>> loader) {
+        Map<Long, ProductDTO> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            ProductDTO cached = cache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) return found;
+
+        long stamp = cache.stamp();
+        for (ProductDTO loaded : loader.apply(misses)) {
+            cache.put(loaded.getId(), loaded, 1, null, stamp);
+            found.put(loaded.getId(), loaded);
+        }
+        return found;
+    }
+
+    /** The cached detail for {@code id}, or null; never loads. */
+    public ProductDTO getIfPresent(Long id) {
+        return cache.get(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVendorChanged(VendorChangedEvent event) {
+        invalidate(productRepository.findIdsByVendorId(event.getVendorProfileId()));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private void invalidate(Collection<Long> productIds) {
+        for (Long id : productIds) {
+            cache.invalidate(id);
+        }
+    }
+}
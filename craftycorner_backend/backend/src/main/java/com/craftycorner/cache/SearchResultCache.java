@@ -0,0 +1,67 @@
+package com.craftycorner.cache;
+
+import com.craftycorner.dto.common.CacheStats;
+import com.craftycorner.dto.common.SearchResponse;
+import com.craftycorner.dto.product.ProductSearchDTO;
+import com.craftycorner.event.SearchIndexChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of product search responses, keyed by the normalized query and tagged with the
+ * query's category filter. A product change only drops the entries for its old and new
+ * category, plus the queries without a category filter, which may include any product.
+ */
+@Component
+public class SearchResultCache {
+
+    private final WeightedLruCache<String, SearchResponse<ProductSearchDTO>> cache;
+
+    public SearchResultCache(@Value("${app.search.cache.max-weight:16000000}") long maxWeight) {
+        this.cache = new WeightedLruCache<>("search-results", maxWeight);
+    }
+
+    public SearchResponse<ProductSearchDTO> get(String key) {
+        return cache.get(key);
+    }
+
+    public long stamp() {
+        return cache.stamp();
+    }
+
+    /** {@code category} is the query's normalized category filter, or null when it has none. */
+    public void put(String key, SearchResponse<ProductSearchDTO> response, String category, long stamp) {
+        cache.put(key, response, weigh(response), category, stamp);
+    }
+
+    @EventListener
+    public void onIndexChanged(SearchIndexChangedEvent event) {
+        if (event.isAllCategories()) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateTags(event.getCategories());
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /** Rough heap size of a response: object overhead plus two bytes per character. */
+    private static long weigh(SearchResponse<ProductSearchDTO> response) {
+        long weight = 256;
+        for (ProductSearchDTO dto : response.getContent()) {
+            weight += 128 + 2L * (length(dto.getTitle()) + length(dto.getDescription())
+                    + length(dto.getCategoryName()) + length(dto.getVendorName()));
+            if (dto.getImageUrls() != null) {
+                for (String url : dto.getImageUrls()) weight += 48 + 2L * length(url);
+            }
+        }
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.craftycorner.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, everyone
+ * arriving while it runs waits for and shares its result (or its exception).
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, call);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.craftycorner.cache;
+
+import com.craftycorner.dto.common.CacheStats;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded LRU cache whose capacity is a total weight (an estimate of the cached values'
+ * size) rather than an entry count, so a few large pages cannot crowd out many small ones
+ * unnoticed.
+ * <p>
+ * Entries can carry a tag so they can be dropped selectively; untagged entries depend on
+ * everything and are dropped by every invalidation. A put is ignored when an invalidation
+ * happened after the caller took its {@link #stamp()}, so a value computed from data that
+ * changed mid-flight is never stored. With a time-to-live, entries older than it count as
+ * misses and are dropped on access.
+ */
+public class WeightedLruCache<K, V> {
+
+    private final String name;
+    private final long maxWeight;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<K>> keysByTag = new HashMap<>();
+    private final Set<K> untaggedKeys = new HashSet<>();
+
+    private long weight;
+    private long stamp;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public WeightedLruCache(String name, long maxWeight) {
+        this(name, maxWeight, null);
+    }
+
+    /** {@code ttl} may be null for entries that only leave on eviction or invalidation. */
+    public WeightedLruCache(String name, long maxWeight, Duration ttl) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl != null ? ttl.toNanos() : Long.MAX_VALUE;
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.storedAt > ttlNanos) {
+            removeEntry(key);
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /** Current invalidation stamp; take it before computing a value to {@link #put} later. */
+    public synchronized long stamp() {
+        return stamp;
+    }
+
+    public synchronized void put(K key, V value, long valueWeight, String tag, long computedAt) {
+        if (computedAt != stamp || valueWeight > maxWeight) return;
+
+        removeEntry(key);
+        entries.put(key, new Entry<>(value, valueWeight, tag, System.nanoTime()));
+        keysFor(tag).add(key);
+        weight += valueWeight;
+
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            Map.Entry<K, Entry<V>> evicted = eldest.next();
+            eldest.remove();
+            forget(evicted.getKey(), evicted.getValue());
+            evictions++;
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        stamp++;
+        if (removeEntry(key)) invalidations++;
+    }
+
+    /** Drops the entries tagged with any of {@code tags}, plus every untagged entry. */
+    public synchronized void invalidateTags(Collection<String> tags) {
+        stamp++;
+        for (String tag : tags) {
+            invalidateKeys(keysByTag.remove(tag));
+        }
+        invalidateKeys(new HashSet<>(untaggedKeys));
+    }
+
+    public synchronized void invalidateAll() {
+        stamp++;
+        invalidations += entries.size();
+        entries.clear();
+        keysByTag.clear();
+        untaggedKeys.clear();
+        weight = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        long lookups = hits + misses;
+        return CacheStats.builder()
+                .name(name)
+                .entries(entries.size())
+                .weight(weight)
+                .maxWeight(maxWeight)
+                .hits(hits)
+                .misses(misses)
+                .hitRate(lookups == 0 ? 0 : (double) hits / lookups)
+                .evictions(evictions)
+                .invalidations(invalidations)
+                .build();
+    }
+
+    private void invalidateKeys(Set<K> keys) {
+        if (keys == null) return;
+        for (K key : keys) {
+            if (removeEntry(key)) invalidations++;
+        }
+    }
+
+    private boolean removeEntry(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry == null) return false;
+        forget(key, entry);
+        return true;
+    }
+
+    private void forget(K key, Entry<V> entry) {
+        weight -= entry.weight;
+        Set<K> keys = keysFor(entry.tag);
+        keys.remove(key);
+        if (entry.tag != null && keys.isEmpty()) keysByTag.remove(entry.tag);
+    }
+
+    private Set<K> keysFor(String tag) {
+        return tag == null ? untaggedKeys : keysByTag.computeIfAbsent(tag, t -> new HashSet<>());
+    }
+
+    private record Entry<V>(V value, long weight, String tag, long storedAt) {
+    }
+}
@@ -0,0 +1,417 @@
+package com.craftycorner.cache;
+
+import com.craftycorner.repository.CartItemBatchWriter;
+import com.craftycorner.repository.CartItemBatchWriter.Line;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Write-behind storage for active carts ({@code app.cart.storage=write-behind}). Carts are
+ * edited in memory and written to {@code cart_items} in batches every
+ * {@code app.cart.write-behind.flush-interval-ms}, at checkout and on shutdown. Each flush
+ * then evicts the least recently used carts beyond {@code app.cart.write-behind.max-carts},
+ * so request threads never scan the whole map. A crash loses at most the changes of the
+ * last flush interval.
+ * <p>
+ * Each cart is guarded by one of {@value #STRIPES} lock stripes, which is never held across
+ * a database round trip: carts are loaded before taking it, new lines come with ids the
+ * caller allocated, and flushes write what they took under it after releasing it. Flushes
+ * take the flush lock first and never overlap, so an older snapshot of a cart is never
+ * written over a newer one.
+ * At checkout the cart is written and handed back to the database until the order
+ * transaction completes; {@link #apply} returns empty for it meanwhile and callers use the
+ * database directly.
+ */
+@Slf4j
+@Component
+public class WriteBehindCartStore {
+
+    private static final int STRIPES = 64;
+    /** Evicting down to this share of the limit leaves room for the carts arriving before the next flush. */
+    private static final double EVICT_TO = 0.9;
+
+    /** A cart as currently stored. */
+    public record Snapshot(Long cartId, Long userId, List<Line> lines) {
+    }
+
+    /**
+     * Edits applied to one cart under its lock. Unknown item ids are ignored. {@code newItemId}
+     * of an add is only asked when the cart has no line for the variant yet.
+     */
+    public interface Editor {
+        void add(LongSupplier newItemId, Long variantId, int quantity, BigDecimal unitPrice);
+
+        boolean hasLine(Long itemId);
+
+        void setQuantity(Long itemId, int quantity);
+
+        void remove(Long itemId);
+
+        void clear();
+    }
+
+    private final boolean enabled;
+    private final int maxCarts;
+    private final JdbcTemplate jdbcTemplate;
+    private final CartItemBatchWriter cartItemBatchWriter;
+    private final TransactionTemplate newTransaction;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    /** Carts dropped from memory per stripe, so a load that raced with a drop is not installed. */
+    private final AtomicLongArray removals = new AtomicLongArray(STRIPES);
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<Long, CartState> carts = new ConcurrentHashMap<>();
+    /** Carts being written before they are dropped from memory; their edits wait for it. */
+    private final Map<Long, CountDownLatch> writing = new ConcurrentHashMap<>();
+    /** Carts handed to the database by a checkout, with the number of checkouts in progress. */
+    private final Map<Long, Integer> checkingOut = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    public WriteBehindCartStore(
+            JdbcTemplate jdbcTemplate,
+            CartItemBatchWriter cartItemBatchWriter,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.cart.storage:database}") String storage,
+            @Value("${app.cart.write-behind.max-carts:10000}") int maxCarts
+    ) {
+        this.enabled = "write-behind".equalsIgnoreCase(storage);
+        this.maxCarts = maxCarts;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cartItemBatchWriter = cartItemBatchWriter;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Cart {@code cartId} after {@code edits}, loading it first if needed; empty during its checkout. */
+    public Optional<Snapshot> apply(Long cartId, Consumer<Editor> edits) {
+        int stripeIndex = stripeIndex(cartId);
+        ReentrantLock stripe = stripes[stripeIndex];
+        while (true) {
+            awaitWritten(cartId);
+            long removalsSeen = removals.get(stripeIndex);
+            CartState loaded = carts.containsKey(cartId) || checkingOut.containsKey(cartId) ? null : load(cartId);
+
+            stripe.lock();
+            try {
+                if (writing.containsKey(cartId)) continue;
+                if (checkingOut.containsKey(cartId)) return Optional.empty();
+
+                CartState state = carts.get(cartId);
+                if (state == null) {
+                    // Dropped since it was checked, or maybe written and dropped since it was loaded
+                    if (loaded == null || removals.get(stripeIndex) != removalsSeen) continue;
+                    state = loaded;
+                    carts.put(cartId, state);
+                }
+                state.lastAccess = clock.incrementAndGet();
+                edits.accept(state);
+                return Optional.of(state.snapshot());
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    private void awaitWritten(Long cartId) {
+        CountDownLatch written = writing.get(cartId);
+        if (written == null) return;
+        try {
+            written.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cart " + cartId + " to be written", e);
+        }
+    }
+
+    public Optional<Snapshot> read(Long cartId) {
+        return apply(cartId, editor -> { });
+    }
+
+    /**
+     * Writes every cart changed since the last flush, all in one transaction, then evicts
+     * carts beyond the limit.
+     */
+    @Scheduled(fixedDelayString = "${app.cart.write-behind.flush-interval-ms:5000}")
+    public void flush() {
+        if (carts.isEmpty()) return;
+
+        writeDirty();
+        if (carts.size() > maxCarts) evictOldest();
+    }
+
+    private void writeDirty() {
+        flushLock.lock();
+        try {
+            List<Pending> pending = new ArrayList<>();
+            for (CartState state : carts.values()) {
+                if (!state.dirty) continue;
+
+                ReentrantLock stripe = stripe(state.cartId);
+                stripe.lock();
+                try {
+                    if (state.dirty) pending.add(state.takePending());
+                } finally {
+                    stripe.unlock();
+                }
+            }
+            if (pending.isEmpty()) return;
+
+            try {
+                newTransaction.executeWithoutResult(status -> pending.forEach(this::write));
+            } catch (RuntimeException e) {
+                log.warn("Could not write {} carts, retrying with the next flush", pending.size(), e);
+                for (Pending failed : pending) restore(failed);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Writes the user's cart and leaves it to the database until the current transaction
+     * completes, so an order placed in it reads and clears the real cart. Call it before that
+     * transaction reads anything, so its snapshot includes what was written.
+     */
+    public void beginCheckout(Long userId) {
+        if (!enabled) return;
+
+        List<Long> ids = newTransaction.execute(status ->
+                jdbcTemplate.queryForList("SELECT id FROM carts WHERE user_id = ?", Long.class, userId));
+        if (ids == null || ids.isEmpty()) return;
+        Long cartId = ids.get(0);
+
+        try {
+            withFlushedAndRemoved(cartId, () -> checkingOut.merge(cartId, 1, Integer::sum));
+        } catch (RuntimeException e) {
+            endCheckout(cartId);
+            throw e;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    endCheckout(cartId);
+                }
+            });
+        } else {
+            endCheckout(cartId);
+        }
+    }
+
+    private void endCheckout(Long cartId) {
+        checkingOut.computeIfPresent(cartId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /** Drops carts that have not been used for longest, writing them first. */
+    private void evictOldest() {
+        List<CartState> byAge = new ArrayList<>(carts.values());
+        int excess = byAge.size() - (int) (maxCarts * EVICT_TO);
+        if (excess <= 0) return;
+
+        byAge.sort(Comparator.comparingLong(state -> state.lastAccess));
+        try {
+            for (CartState state : byAge.subList(0, excess)) {
+                withFlushedAndRemoved(state.cartId, () -> { });
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not write an evicted cart, keeping it in memory", e);
+        }
+    }
+
+    /**
+     * Writes the cart and drops it from memory. The stripe is held only to take the cart's
+     * pending changes and to drop it, not across the write; edits arriving meanwhile wait
+     * for the write instead of going to the database ahead of it.
+     */
+    private void withFlushedAndRemoved(Long cartId, Runnable underLock) {
+        int stripeIndex = stripeIndex(cartId);
+        ReentrantLock stripe = stripes[stripeIndex];
+        CountDownLatch written = new CountDownLatch(1);
+        flushLock.lock();
+        try {
+            Pending pending = null;
+            stripe.lock();
+            try {
+                underLock.run();
+                writing.put(cartId, written);
+                CartState state = carts.get(cartId);
+                if (state != null && state.dirty) pending = state.takePending();
+            } finally {
+                stripe.unlock();
+            }
+
+            if (pending != null) {
+                Pending taken = pending;
+                try {
+                    newTransaction.executeWithoutResult(status -> write(taken));
+                } catch (RuntimeException e) {
+                    restore(taken);
+                    throw e;
+                }
+            }
+
+            stripe.lock();
+            try {
+                carts.remove(cartId);
+                removals.incrementAndGet(stripeIndex);
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            writing.remove(cartId, written);
+            written.countDown();
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Pending pending) {
+        // Deletes first: a line removed and re-added has a new id but the same variant
+        cartItemBatchWriter.delete(pending.cartId, pending.deletedItemIds);
+        cartItemBatchWriter.saveLines(pending.cartId, pending.lines);
+    }
+
+    private void restore(Pending failed) {
+        ReentrantLock stripe = stripe(failed.cartId);
+        stripe.lock();
+        try {
+            CartState state = carts.get(failed.cartId);
+            if (state != null) {
+                state.dirty = true;
+                state.deletedItemIds.addAll(failed.deletedItemIds);
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private CartState load(Long cartId) {
+        Long userId = jdbcTemplate.queryForObject("SELECT user_id FROM carts WHERE id = ?", Long.class, cartId);
+        CartState state = new CartState(cartId, userId);
+        for (Line line : cartItemBatchWriter.findLines(cartId)) {
+            state.lines.put(line.itemId(), line);
+        }
+        return state;
+    }
+
+    private ReentrantLock stripe(Long cartId) {
+        return stripes[stripeIndex(cartId)];
+    }
+
+    /** Package-private for tests that need two carts sharing a stripe. */
+    static int stripeIndex(Long cartId) {
+        return Math.floorMod(Long.hashCode(cartId * 0x9E3779B97F4A7C15L), STRIPES);
+    }
+
+    /** What a flush writes for one cart: all its lines and the ids deleted since the last flush. */
+    private record Pending(Long cartId, List<Line> lines, Set<Long> deletedItemIds) {
+    }
+
+    /** Guarded by the cart's stripe; {@code dirty} is also read without it to skip clean carts. */
+    private final class CartState implements Editor {
+
+        private final Long cartId;
+        private final Long userId;
+        private final Map<Long, Line> lines = new LinkedHashMap<>();
+        private final Set<Long> deletedItemIds = new HashSet<>();
+        private volatile boolean dirty;
+        private volatile long lastAccess;
+
+        private CartState(Long cartId, Long userId) {
+            this.cartId = cartId;
+            this.userId = userId;
+        }
+
+        @Override
+        public void add(LongSupplier newItemId, Long variantId, int quantity, BigDecimal unitPrice) {
+            for (Line line : lines.values()) {
+                if (line.variantId().equals(variantId)) {
+                    lines.put(line.itemId(), new Line(line.itemId(), variantId, line.quantity() + quantity, line.unitPrice()));
+                    dirty = true;
+                    return;
+                }
+            }
+            Long itemId = newItemId.getAsLong();
+            lines.put(itemId, new Line(itemId, variantId, quantity, unitPrice));
+            dirty = true;
+        }
+
+        @Override
+        public boolean hasLine(Long itemId) {
+            return lines.containsKey(itemId);
+        }
+
+        @Override
+        public void setQuantity(Long itemId, int quantity) {
+            Line line = lines.get(itemId);
+            if (line == null) return;
+
+            lines.put(itemId, new Line(itemId, line.variantId(), quantity, line.unitPrice()));
+            dirty = true;
+        }
+
+        @Override
+        public void remove(Long itemId) {
+            if (lines.remove(itemId) == null) return;
+
+            deletedItemIds.add(itemId);
+            dirty = true;
+        }
+
+        @Override
+        public void clear() {
+            if (lines.isEmpty()) return;
+
+            deletedItemIds.addAll(lines.keySet());
+            lines.clear();
+            dirty = true;
+        }
+
+        private Snapshot snapshot() {
+            return new Snapshot(cartId, userId, List.copyOf(lines.values()));
+        }
+
+        private Pending takePending() {
+            Pending pending = new Pending(cartId, List.copyOf(lines.values()), Set.copyOf(deletedItemIds));
+            deletedItemIds.clear();
+            dirty = false;
+            return pending;
+        }
+    }
+}
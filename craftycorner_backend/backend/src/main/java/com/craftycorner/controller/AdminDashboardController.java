@@ -0,0 +1,23 @@
+package com.craftycorner.controller;
+
+import com.craftycorner.dto.admin.DashboardSummaryDTO;
+import com.craftycorner.service.AdminDashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/dashboard")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminDashboardController {
+
+    private final AdminDashboardService adminDashboardService;
+
+    @GetMapping("/summary")
+    public DashboardSummaryDTO getSummary() {
+        return adminDashboardService.getSummary();
+    }
+}
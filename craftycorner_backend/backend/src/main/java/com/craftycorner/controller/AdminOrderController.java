@@ -2,6 +2,7 @@ package com.craftycorner.controller;
 
 import com.craftycorner.dto.order.OrderDTO;
 import com.craftycorner.model.OrderStatus;
+import com.craftycorner.service.AdminDashboardService;
 import com.craftycorner.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,6 +17,7 @@ import java.util.List;
 public class AdminOrderController {
 
     private final OrderService orderService;
+    private final AdminDashboardService adminDashboardService;
 
     @GetMapping
     public List<OrderDTO> getAllOrders() {
@@ -37,6 +39,6 @@ public class AdminOrderController {
 
     @GetMapping("/count")
     public long getOrderCount() {
-        return orderService.getAllOrders().size();
+        return adminDashboardService.getSummary().getTotalOrders();
     }
 }
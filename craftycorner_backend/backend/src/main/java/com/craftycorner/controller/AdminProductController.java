@@ -1,7 +1,9 @@
 package com.craftycorner.controller;
 
+import com.craftycorner.dto.common.CacheStats;
 import com.craftycorner.dto.product.ProductDTO;
 import com.craftycorner.model.ProductStatus;
+import com.craftycorner.service.AdminDashboardService;
 import com.craftycorner.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,6 +18,7 @@ import java.util.List;
 public class AdminProductController {
 
     private final ProductService productService;
+    private final AdminDashboardService adminDashboardService;
 
     @GetMapping
     public List<ProductDTO> list(@RequestParam(required = false) ProductStatus status) {
@@ -41,19 +44,22 @@ public class AdminProductController {
 
     @GetMapping("/count")
     public long getTotalProductsCount() {
-        return productService.getAllProducts().size();
+        return adminDashboardService.getSummary().getTotalProducts();
     }
 
     @GetMapping("/pending/count")
     public long getPendingProductsCount() {
-        return productService.getProductsByStatus(ProductStatus.DRAFT).size()
-                + productService.getProductsByStatus(ProductStatus.INACTIVE).size();
+        return adminDashboardService.getSummary().getPendingProducts();
     }
 
+    // The last five products in id order, read fresh; the dashboard summary lists newest first
     @GetMapping("/recent")
     public List<ProductDTO> getRecentProducts() {
-        List<ProductDTO> all = productService.getAllProducts();
-        int size = all.size();
-        return all.subList(Math.max(0, size - 5), size);
+        return productService.getLastProducts(5);
+    }
+
+    @GetMapping("/cache")
+    public CacheStats getDetailCacheStats() {
+        return productService.getDetailCacheStats();
     }
 }
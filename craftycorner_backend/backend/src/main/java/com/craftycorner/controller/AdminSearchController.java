@@ -0,0 +1,21 @@
+package com.craftycorner.controller;
+
+import com.craftycorner.dto.common.CacheStats;
+import com.craftycorner.service.ProductSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/search")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminSearchController {
+
+    private final ProductSearchService productSearchService;
+
+    @GetMapping("/cache")
+    public CacheStats getCacheStats() {
+        return productSearchService.getCacheStats();
+    }
+}
@@ -1,5 +1,6 @@
 package com.craftycorner.controller;
 
+import com.craftycorner.dto.cart.CartBatchRequest;
 import com.craftycorner.dto.cart.CartDTO;
 import com.craftycorner.service.CartService;
 import lombok.RequiredArgsConstructor;
@@ -32,6 +33,17 @@ public class CartController {
         return ResponseEntity.ok(updated);
     }
 
+    /** Several add/update/remove operations in one request, answered with the resulting cart. */
+    @PostMapping("/batch")
+    public ResponseEntity<CartDTO> applyBatch(
+            Authentication auth,
+            @RequestBody CartBatchRequest request
+    ) {
+        String email = auth.getName();
+        CartDTO updated = cartService.applyBatchByEmail(email, request.getOperations());
+        return ResponseEntity.ok(updated);
+    }
+
     @DeleteMapping("/remove/{itemId}")
     public ResponseEntity<CartDTO> removeFromCart(
             Authentication auth,
@@ -51,11 +63,12 @@ public class CartController {
 
     @PutMapping("/update/{itemId}")
     public ResponseEntity<?> updateCartItemQuantity(
+            Authentication auth,
             @PathVariable Long itemId,
             @RequestParam int quantity
     ) {
         try {
-            cartService.updateCartItemQuantity(itemId, quantity);
+            cartService.updateCartItemQuantity(auth.getName(), itemId, quantity);
             return ResponseEntity.ok("Quantity updated successfully");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -0,0 +1,130 @@
+package com.craftycorner.controller;
+
+import com.craftycorner.cache.EncodedBody;
+import com.craftycorner.cache.EncodedResponseCache;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for the public catalog endpoints. Each response carries a strong ETag
+ * derived from the version of the data behind it, and an {@code If-None-Match} that still
+ * matches is answered with 304 before the body is loaded or serialized. Clients and CDNs
+ * are told to revalidate on every use, which is cheap.
+ * <p>
+ * Hot responses can also be served from pre-encoded bytes, see
+ * {@link #respondEncoded(WebRequest, String, String, EncodedResponseCache, Supplier)}.
+ */
+final class ConditionalResponses {
+
+    /**
+     * Snapshot and index versions are counters of this process; the epoch keeps them from
+     * matching tags handed out by an earlier run.
+     */
+    private static final String PROCESS_EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    /** Suffix telling the gzip representation's tag apart from the identity one. */
+    private static final String GZIP_TAG_SUFFIX = "-gz";
+
+    private ConditionalResponses() {
+    }
+
+    /** Tag for data identified by an in-memory version counter ({@code kind} keeps sources apart). */
+    static String versionTag(String kind, long version) {
+        return PROCESS_EPOCH + "-" + kind + Long.toString(version, 36);
+    }
+
+    /** Tag for a single product, from its last modification time. */
+    static String productTag(Long id, LocalDateTime updatedAt) {
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return "p" + id + "-" + Long.toString(micros, 36);
+    }
+
+    /**
+     * 304 if {@code etag} matches the request's {@code If-None-Match}, else 200 with the body
+     * from {@code body}. A null {@code etag} (no version available) always yields a plain 200.
+     */
+    static <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<T> body) {
+        if (etag == null) {
+            return ResponseEntity.ok(body.get());
+        }
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+
+    /**
+     * Like {@link #respond}, but the 200 body is written as the cached JSON (or gzip) bytes for
+     * {@code key}, skipping Jackson on every hit. {@code key} must change whenever the body
+     * does; it normally is {@code etag} plus whatever request parameters shape the body.
+     * Without an {@code etag} there is no version to key on and the body is serialized as usual.
+     */
+    static ResponseEntity<?> respondEncoded(WebRequest request, String etag, String key,
+                                            EncodedResponseCache cache, Supplier<?> body) {
+        if (etag == null) {
+            return respond(request, null, body);
+        }
+
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String variantTag = gzip ? etag + GZIP_TAG_SUFFIX : etag;
+        if (request.checkNotModified(variantTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(variantTag).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+
+        EncodedBody encoded = cache.get(key, body);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(variantTag)
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip && encoded.getGzip() != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.getGzip());
+        }
+        return response.body(encoded.getJson());
+    }
+
+    /**
+     * Key for {@link #respondEncoded}: the tag plus the request parameters shaping the body,
+     * each length-prefixed so free-text parameters cannot run into one another. Null without
+     * a tag.
+     */
+    static String bodyKey(String etag, Object... params) {
+        if (etag == null) return null;
+
+        StringBuilder key = new StringBuilder(etag);
+        for (Object param : params) {
+            String value = String.valueOf(param);
+            key.append('|').append(value.length()).append(':').append(value);
+        }
+        return key.toString();
+    }
+
+    /** Whether {@code acceptEncoding} lists gzip (or {@code *}) without refusing it via {@code q=0}. */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) continue;
+
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].replace(" ", "").matches("[qQ]=0(\\.0{0,3})?")) refused = true;
+            }
+            if (!refused) return true;
+        }
+        return false;
+    }
+}
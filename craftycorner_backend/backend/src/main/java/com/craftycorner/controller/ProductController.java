@@ -1,12 +1,28 @@
 package com.craftycorner.controller;
 
+import com.craftycorner.cache.EncodedResponseCache;
+import com.craftycorner.dto.product.ProductBatchResponse;
 import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.dto.product.ProductImportStatus;
+import com.craftycorner.importer.ImportFormat;
+import com.craftycorner.importer.ProductRowReader;
 import com.craftycorner.model.Product;
+import com.craftycorner.service.ProductImportService;
 import com.craftycorner.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -15,6 +31,9 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ObjectMapper objectMapper;
+    private final EncodedResponseCache encodedResponses;
 
     @PostMapping("/vendors/products")
     public ProductDTO createProduct(@RequestBody ProductDTO dto) {
@@ -36,6 +55,45 @@ public class ProductController {
         );
     }
 
+    /**
+     * Bulk create from a CSV ({@code text/csv}) or NDJSON body, read as a stream. The response
+     * is NDJSON written while the import runs: an {@code error} line per rejected row, a
+     * {@code progress} line per written chunk and a final {@code done} line with the totals.
+     */
+    @PostMapping("/vendors/products/import")
+    public void importProducts(@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                               InputStream body,
+                               HttpServletResponse response) throws IOException {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        ProductRowReader reader;
+        try {
+            reader = ImportFormat.fromContentType(contentType).open(body, objectMapper);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+
+        try (reader) {
+            response.setContentType("application/x-ndjson");
+            OutputStream out = response.getOutputStream();
+            try {
+                productImportService.importProducts(email, reader, status -> writeLine(out, status));
+            } catch (IOException e) {
+                writeLine(out, ProductImportStatus.builder().type("error").message(e.getMessage()).build());
+            }
+        }
+    }
+
+    private void writeLine(OutputStream out, ProductImportStatus status) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(status));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @PutMapping("/vendors/products/{productId}")
     public ProductDTO updateProduct(@PathVariable Long productId,
                                     @RequestBody ProductDTO dto) {
@@ -64,14 +122,43 @@ public class ProductController {
         productService.deleteProductForVendor(productId, email);
     }
 
+    /**
+     * Without paging params the whole catalog is returned as before; with {@code size} and/or
+     * {@code after} it switches to keyset pages for infinite scroll. Both are tagged with the
+     * storefront snapshot version, which moves on every product or vendor change, and served
+     * from the JSON encoded for that version.
+     */
     @GetMapping("/products")
-    public List<ProductDTO> getAllProducts() {
-        return productService.getAllActiveProducts();
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "newest") String sortBy,
+            WebRequest request
+    ) {
+        long version = productService.getCatalogVersion();
+        String etag = version > 0 ? ConditionalResponses.versionTag("c", version) : null;
+
+        if (after == null && size == null) {
+            return ConditionalResponses.respondEncoded(request, etag, etag, encodedResponses,
+                    productService::getAllActiveProducts);
+        }
+        int pageSize = size != null ? size : 20;
+        return ConditionalResponses.respondEncoded(request, etag, ConditionalResponses.bodyKey(etag, after, sortBy, pageSize),
+                encodedResponses, () -> productService.getActiveProductsPage(after, sortBy, pageSize));
+    }
+
+    /** {@code ?ids=1,2,3}: several products in one call, in request order, with unknown ids listed. */
+    @GetMapping(value = "/products", params = "ids")
+    public ProductBatchResponse getProductsByIds(@RequestParam List<Long> ids) {
+        return productService.getProductsByIds(ids);
     }
 
     @GetMapping("/products/{id}")
-    public ProductDTO getProductById(@PathVariable Long id) {
-        return productService.getProductById(id);
+    public ResponseEntity<?> getProductById(@PathVariable Long id, WebRequest request) {
+        LocalDateTime version = productService.getProductVersion(id);
+        String etag = version != null ? ConditionalResponses.productTag(id, version) : null;
+        return ConditionalResponses.respondEncoded(request, etag, etag, encodedResponses,
+                () -> productService.getProductById(id));
     }
 
     @GetMapping("/vendors/products")
@@ -1,12 +1,14 @@
 package com.craftycorner.controller;
 
-import com.craftycorner.dto.common.SearchResponse;
-import com.craftycorner.dto.product.ProductSearchDTO;
+import com.craftycorner.cache.EncodedResponseCache;
 import com.craftycorner.service.ProductSearchService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/search")
@@ -14,19 +16,38 @@ import java.math.BigDecimal;
 public class ProductSearchController {
 
     private final ProductSearchService productSearchService;
+    private final EncodedResponseCache encodedResponses;
 
+    /**
+     * Tagged with the search index generation and served from the JSON encoded for it;
+     * SQL-backed results are neither tagged nor pre-encoded.
+     */
     @GetMapping("/products")
-    public SearchResponse<ProductSearchDTO> searchProducts(
+    public ResponseEntity<?> searchProducts(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(defaultValue = "newest") String sortBy,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            WebRequest request
     ) {
-        return productSearchService.searchProducts(
-                keyword, category, minPrice, maxPrice, sortBy, page, size
-        );
+        Long version = productSearchService.getResultsVersion();
+        String etag = version != null ? ConditionalResponses.versionTag("s", version) : null;
+        String key = ConditionalResponses.bodyKey(etag, keyword, category, minPrice, maxPrice, sortBy, page, size, after, fuzzy);
+        return ConditionalResponses.respondEncoded(request, etag, key, encodedResponses, () -> productSearchService.searchProducts(
+                keyword, category, minPrice, maxPrice, sortBy, page, size, after, fuzzy
+        ));
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return productSearchService.suggest(q, limit);
     }
 }
@@ -0,0 +1,34 @@
+package com.craftycorner.dto.admin;
+
+import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.model.OrderStatus;
+import com.craftycorner.model.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardSummaryDTO {
+    private long totalProducts;
+
+    /** DRAFT plus INACTIVE products, i.e. those waiting on or refused admin approval. */
+    private long pendingProducts;
+    private Map<ProductStatus, Long> productsByStatus;
+
+    private long totalOrders;
+    private Map<OrderStatus, Long> ordersByStatus;
+
+    private List<ProductDTO> recentProducts;
+    private List<RecentOrderDTO> recentOrders;
+
+    /** When these figures were read; they may be served for a few seconds afterwards. */
+    private Instant generatedAt;
+}
@@ -0,0 +1,21 @@
+package com.craftycorner.dto.admin;
+
+import com.craftycorner.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/** Order headline for the admin dashboard, selected by a JPQL constructor expression. */
+@Getter
+@AllArgsConstructor
+public class RecentOrderDTO {
+
+    private Long id;
+    private String customerName;
+    private String customerEmail;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private Instant createdAt;
+}
@@ -0,0 +1,14 @@
+package com.craftycorner.dto.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartBatchRequest {
+    private List<CartOperation> operations;
+}
@@ -0,0 +1,25 @@
+package com.craftycorner.dto.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a cart read in a single query: the cart with one of its lines and what the line
+ * shows about its variant. An empty cart is one row whose line fields are null.
+ */
+@Getter
+@AllArgsConstructor
+public class CartLineView {
+    private Long cartId;
+    private Long userId;
+    private Long itemId;
+    private Integer quantity;
+    private Long variantId;
+    private String productTitle;
+    private String variantName;
+    private String variantValue;
+    private BigDecimal price;
+    private String imageUrl;
+}
@@ -0,0 +1,18 @@
+package com.craftycorner.dto.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One step of a batch cart mutation; which fields are used depends on {@link #type}. */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartOperation {
+    private CartOperationType type;
+    private Long variantId;
+    private Long itemId;
+    private Integer quantity;
+}
@@ -0,0 +1,10 @@
+package com.craftycorner.dto.cart;
+
+public enum CartOperationType {
+    /** Adds {@code quantity} of {@code variantId} (a variant or product id, as for /api/cart/add). */
+    ADD,
+    /** Sets the quantity of cart line {@code itemId}. */
+    UPDATE,
+    /** Removes cart line {@code itemId}. */
+    REMOVE
+}
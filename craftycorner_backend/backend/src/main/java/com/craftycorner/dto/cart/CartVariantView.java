@@ -0,0 +1,18 @@
+package com.craftycorner.dto.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/** What a cart line shows about its variant, read in one query for all lines of a cart. */
+@Getter
+@AllArgsConstructor
+public class CartVariantView {
+    private Long variantId;
+    private String productTitle;
+    private String variantName;
+    private String variantValue;
+    private BigDecimal price;
+    private String imageUrl;
+}
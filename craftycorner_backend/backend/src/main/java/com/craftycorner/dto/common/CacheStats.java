@@ -0,0 +1,25 @@
+package com.craftycorner.dto.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStats {
+    private String name;
+    private int entries;
+
+    /** Estimated size of the cached values, in bytes. */
+    private long weight;
+    private long maxWeight;
+
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long evictions;
+    private long invalidations;
+}
@@ -0,0 +1,19 @@
+package com.craftycorner.dto.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String sortBy;
+
+    /** Pass back as {@code after} to get the next page; null on the last page. */
+    private String nextCursor;
+}
@@ -20,4 +20,10 @@ public class SearchResponse<T> {
 
     private String sortBy;
     private Map<String, Object> filters;
+
+    /** Keyset cursor for the next page ({@code after} param); null when nothing follows. */
+    private String nextCursor;
+
+    /** Hit counts per category, tag and price bucket; null when served by the database fallback. */
+    private Map<String, Map<String, Integer>> facets;
 }
@@ -0,0 +1,16 @@
+package com.craftycorner.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Products for a multi-get, in request order, plus the requested ids that do not exist. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+    private List<ProductDTO> products;
+    private List<Long> missingIds;
+}
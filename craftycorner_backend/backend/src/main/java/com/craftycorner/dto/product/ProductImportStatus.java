@@ -0,0 +1,27 @@
+package com.craftycorner.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the NDJSON stream returned by a bulk import: a row {@code error}, a
+ * {@code progress} report after each written chunk, and a final {@code done}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductImportStatus {
+    private String type;
+
+    private Long line;
+    private String message;
+
+    private Long rowsRead;
+    private Long imported;
+    private Long failed;
+}
@@ -0,0 +1,27 @@
+package com.craftycorner.dto.product;
+
+import com.craftycorner.model.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Flat product columns with category and vendor names, selected by a JPQL constructor expression. */
+@Getter
+@AllArgsConstructor
+public class ProductRow {
+
+    private Long id;
+    private String title;
+    private String description;
+    private BigDecimal basePrice;
+    private Boolean madeToOrder;
+    private Integer leadTimeDays;
+    private ProductStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long categoryId;
+    private String categoryName;
+    private String vendorName;
+}
@@ -0,0 +1,23 @@
+package com.craftycorner.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published whenever a write may have changed what the storefront shows for a product
+ * (create, update, status change, delete, image or tag changes). Listeners reload the
+ * current state themselves, so a deleted product simply no longer loads.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductChangedEvent {
+
+    private final Collection<Long> productIds;
+
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(List.of(productId));
+    }
+}
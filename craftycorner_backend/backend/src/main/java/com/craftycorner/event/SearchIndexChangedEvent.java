@@ -0,0 +1,19 @@
+package com.craftycorner.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Published by the search engine once changed products are re-indexed, naming the
+ * (normalized) categories whose results may differ: each product's category before and
+ * after the change. {@code allCategories} is set when the previous state is unknown.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SearchIndexChangedEvent {
+
+    private final Set<String> categories;
+    private final boolean allCategories;
+}
@@ -0,0 +1,12 @@
+package com.craftycorner.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** Published when a tag is created on its own, outside of a product write. */
+@Getter
+@RequiredArgsConstructor
+public class TagCreatedEvent {
+
+    private final String name;
+}
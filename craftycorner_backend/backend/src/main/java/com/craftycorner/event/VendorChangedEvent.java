@@ -0,0 +1,15 @@
+package com.craftycorner.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a vendor's onboarding status or shop details change, which decides
+ * whether (and under which name) all of that vendor's products appear on the storefront.
+ */
+@Getter
+@RequiredArgsConstructor
+public class VendorChangedEvent {
+
+    private final Long vendorProfileId;
+}
@@ -0,0 +1,131 @@
+package com.craftycorner.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV with a header row naming the columns (in any order, case-insensitive):
+ * {@code title, description, basePrice, madeToOrder, leadTimeDays, status, categoryId, tags}.
+ * Quoted fields may contain commas, doubled quotes and line breaks. Tags are separated by
+ * {@code |} within their field.
+ */
+public class CsvProductRowReader implements ProductRowReader {
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long line = 1;
+    private int pushedBack = EOF - 1;
+
+    public CsvProductRowReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IOException("CSV import is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        if (!columns.containsKey("title")) {
+            throw new IOException("CSV header must contain a title column");
+        }
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        List<String> record;
+        long start;
+        do {
+            start = line;
+            record = readRecord();
+            if (record == null) return null;
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        String tags = field(record, "tags");
+        return ProductImportRow.builder()
+                .line(start)
+                .title(field(record, "title"))
+                .description(field(record, "description"))
+                .basePrice(field(record, "baseprice"))
+                .madeToOrder(field(record, "madetoorder"))
+                .leadTimeDays(field(record, "leadtimedays"))
+                .status(field(record, "status"))
+                .categoryId(field(record, "categoryid"))
+                .tags(tags == null || tags.isBlank() ? List.of() : Arrays.asList(tags.split("\\|")))
+                .build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String field(List<String> record, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < record.size() ? record.get(index) : null;
+    }
+
+    /** Reads one record, or null at end of input. */
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == EOF) return null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == EOF) throw new IOException("Unterminated quoted field starting before line " + line);
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == EOF) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') unread(following);
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushedBack >= EOF) {
+            c = pushedBack;
+            pushedBack = EOF - 1;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') line++;
+        return c;
+    }
+
+    private void unread(int c) {
+        if (c == '\n') line--;
+        pushedBack = c;
+    }
+}
@@ -0,0 +1,24 @@
+package com.craftycorner.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    /** CSV for {@code text/csv}, NDJSON for everything else. */
+    public static ImportFormat fromContentType(String contentType) {
+        return contentType != null && contentType.toLowerCase().contains("csv") ? CSV : NDJSON;
+    }
+
+    public ProductRowReader open(InputStream input, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return this == CSV ? new CsvProductRowReader(reader) : new NdjsonProductRowReader(reader, objectMapper);
+    }
+}
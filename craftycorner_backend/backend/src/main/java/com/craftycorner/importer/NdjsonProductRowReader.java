@@ -0,0 +1,71 @@
+package com.craftycorner.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One JSON object per line with the same fields as a product create request; {@code tags}
+ * is an array of names. A line that is not valid JSON becomes a failed row, not a failed
+ * import.
+ */
+public class NdjsonProductRowReader implements ProductRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long line;
+
+    public NdjsonProductRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) return null;
+        } while (text.isBlank());
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            return ProductImportRow.builder().line(line).error("Malformed JSON: " + e.getOriginalMessage()).build();
+        }
+        if (!node.isObject()) {
+            return ProductImportRow.builder().line(line).error("Expected a JSON object").build();
+        }
+
+        List<String> tags = new ArrayList<>();
+        node.path("tags").forEach(tag -> tags.add(tag.asText()));
+        return ProductImportRow.builder()
+                .line(line)
+                .title(text(node, "title"))
+                .description(text(node, "description"))
+                .basePrice(text(node, "basePrice"))
+                .madeToOrder(text(node, "madeToOrder"))
+                .leadTimeDays(text(node, "leadTimeDays"))
+                .status(text(node, "status"))
+                .categoryId(text(node, "categoryId"))
+                .tags(tags)
+                .build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,32 @@
+package com.craftycorner.importer;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One record of a bulk product import, as read from the file. Values are kept as text so
+ * that all validation (and its error messages) lives in one place, whatever the format.
+ */
+@Data
+@Builder
+public class ProductImportRow {
+
+    /** Line in the uploaded file where the record starts. */
+    private long line;
+
+    private String title;
+    private String description;
+    private String basePrice;
+    private String madeToOrder;
+    private String leadTimeDays;
+    private String status;
+    private String categoryId;
+
+    @Builder.Default
+    private List<String> tags = List.of();
+
+    /** Set when the record could not be parsed at all. */
+    private String error;
+}
@@ -0,0 +1,11 @@
+package com.craftycorner.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/** Pulls import rows off a stream one at a time; never buffers more than the current record. */
+public interface ProductRowReader extends Closeable {
+
+    /** The next row, or null at the end of the input. */
+    ProductImportRow next() throws IOException;
+}
@@ -6,7 +6,13 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "cart_items")
+@Table(
+        name = "cart_items",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_cart_items_cart_variant",
+                columnNames = {"cart_id", "product_variant_id"}
+        )
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,7 +21,15 @@ import java.math.BigDecimal;
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cart_item_ids")
+    @TableGenerator(
+            name = "cart_item_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.CART_ITEMS,
+            allocationSize = IdGenerators.ALLOCATION_SIZE
+    )
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -0,0 +1,29 @@
+package com.craftycorner.model;
+
+/**
+ * Shared settings for the table-backed id generators of the entities we insert in bulk.
+ * <p>
+ * {@code IDENTITY} ids make Hibernate insert each row on persist to learn its key, which
+ * rules out JDBC batching. These entities instead take ids from one row per table in
+ * {@value #TABLE}, handed out in blocks of {@value #ALLOCATION_SIZE} with the pooled-lo
+ * optimizer: a stored value {@code n} means ids {@code n} onwards are free. Code that
+ * inserts rows itself reserves its ids from the same row (see IdGeneratorRepository).
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String SEGMENT_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+    /** First id of a segment whose row does not exist yet (what @TableGenerator's default maps to). */
+    public static final int INITIAL_VALUE = 1;
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_IMAGES = "product_images";
+    public static final String TAGS = "tags";
+    public static final String ORDER_ITEMS = "order_items";
+    public static final String CART_ITEMS = "cart_items";
+
+    private IdGenerators() {
+    }
+}
@@ -9,7 +9,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_created_at", columnList = "created_at, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,7 +14,15 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_ids")
+    @TableGenerator(
+            name = "order_item_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.ORDER_ITEMS,
+            allocationSize = IdGenerators.ALLOCATION_SIZE
+    )
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -10,7 +10,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_created_at", columnList = "created_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,7 +20,15 @@ import java.util.Set;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_ids")
+    @TableGenerator(
+            name = "product_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.PRODUCTS,
+            allocationSize = IdGenerators.ALLOCATION_SIZE
+    )
     private Long id;
 
     private String title;
@@ -68,4 +76,18 @@ public class Product {
     )
     @JsonIgnoreProperties("product")
     private Set<ProductImage> images = new HashSet<>();
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (this.createdAt == null) {
+            this.createdAt = now;
+        }
+        this.updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
 }
@@ -13,7 +13,15 @@ import lombok.*;
 public class ProductImage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_image_ids")
+    @TableGenerator(
+            name = "product_image_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.PRODUCT_IMAGES,
+            allocationSize = IdGenerators.ALLOCATION_SIZE
+    )
     private Long id;
 
     private String imageUrl;
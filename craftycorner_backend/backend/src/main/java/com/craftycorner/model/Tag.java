@@ -15,12 +15,22 @@ import java.util.Set;
 public class Tag {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "tag_ids")
+    @TableGenerator(
+            name = "tag_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.TAGS,
+            allocationSize = IdGenerators.ALLOCATION_SIZE
+    )
     private Long id;
 
     @Column(nullable = false, unique = true)
     private String name;
 
     @ManyToMany(mappedBy = "tags")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<Product> products = new HashSet<>();
 }
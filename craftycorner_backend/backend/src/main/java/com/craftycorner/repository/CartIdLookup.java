@@ -0,0 +1,49 @@
+package com.craftycorner.repository;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cart id by user email, so cart writes need neither the user nor the cart entity. A user
+ * has exactly one cart (unique {@code user_id}) that is never deleted, and emails do not
+ * change, so a remembered id cannot go stale.
+ * <p>
+ * A missing cart is created with {@code INSERT IGNORE} in its own transaction, which lets
+ * concurrent first requests of the same user agree on one row. Call this before the
+ * caller's transaction reads anything: a REPEATABLE READ snapshot taken earlier would not
+ * include a cart committed here.
+ */
+@Repository
+public class CartIdLookup {
+
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+    private final CartRepository cartRepository;
+    private final TransactionTemplate newTransaction;
+
+    public CartIdLookup(CartRepository cartRepository, PlatformTransactionManager transactionManager) {
+        this.cartRepository = cartRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** The user's cart id, creating the cart if needed. */
+    public Long getOrCreate(String email) {
+        Long cached = ids.get(email);
+        if (cached != null) return cached;
+
+        Long id = newTransaction.execute(status -> cartRepository.findIdByUserEmail(email).orElseGet(() -> {
+            Instant now = Instant.now();
+            cartRepository.insertIgnoreForUserEmail(email, now);
+            return cartRepository.findIdByUserEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found: " + email));
+        }));
+        ids.put(email, id);
+        return id;
+    }
+}
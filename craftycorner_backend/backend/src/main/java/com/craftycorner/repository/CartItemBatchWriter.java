@@ -0,0 +1,137 @@
+package com.craftycorner.repository;
+
+import com.craftycorner.model.IdGenerators;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cart line reads and writes for many lines at once, each write sent as one JDBC batch (a single round trip
+ * with {@code rewriteBatchedStatements}). Every statement is scoped to the cart, so ids of
+ * another user's lines are ignored.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartItemBatchWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledIdAllocator pooledIdAllocator;
+
+    /** Quantity and current unit price to add for one variant. */
+    public record Addition(Long variantId, int quantity, BigDecimal unitPrice) {
+    }
+
+    /** A cart line as stored: id, variant, quantity and the unit price when it was added. */
+    public record Line(Long itemId, Long variantId, int quantity, BigDecimal unitPrice) {
+    }
+
+    /**
+     * Same upsert as {@link CartItemRepository#upsertQuantity}, for several variants. Ids are
+     * only allocated for the variants the cart has no line for yet.
+     */
+    public void addQuantities(Long cartId, Collection<Addition> additions) {
+        if (additions.isEmpty()) return;
+
+        Map<Long, Long> itemIds = findItemIds(cartId, additions.stream().map(Addition::variantId).toList());
+        List<Object[]> rows = new ArrayList<>(additions.size());
+        for (Addition addition : additions) {
+            Long itemId = itemIds.containsKey(addition.variantId())
+                    ? itemIds.get(addition.variantId())
+                    : pooledIdAllocator.next(IdGenerators.CART_ITEMS);
+            rows.add(new Object[]{
+                    itemId, cartId, addition.variantId(), addition.quantity(), addition.unitPrice(), addition.quantity()
+            });
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO cart_items (id, cart_id, product_variant_id, qty, unit_price_snapshot)
+                VALUES (?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE qty = qty + ?
+                """, rows);
+    }
+
+    /**
+     * Writes lines with their ids and absolute quantities: inserted when new, else the
+     * quantity is overwritten (a line replaced by a new id must be deleted first).
+     */
+    public void saveLines(Long cartId, Collection<Line> lines) {
+        if (lines.isEmpty()) return;
+
+        List<Object[]> rows = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            rows.add(new Object[]{
+                    line.itemId(), cartId, line.variantId(), line.quantity(), line.unitPrice(), line.quantity()
+            });
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO cart_items (id, cart_id, product_variant_id, qty, unit_price_snapshot)
+                VALUES (?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE qty = ?
+                """, rows);
+    }
+
+    /** New quantities by cart item id. */
+    public void setQuantities(Long cartId, Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) return;
+
+        List<Object[]> rows = new ArrayList<>(quantities.size());
+        quantities.forEach((itemId, quantity) -> rows.add(new Object[]{quantity, itemId, cartId}));
+        jdbcTemplate.batchUpdate("UPDATE cart_items SET qty = ? WHERE id = ? AND cart_id = ?", rows);
+    }
+
+    /** Ids of the cart's lines for {@code variantIds}, by variant id. */
+    private Map<Long, Long> findItemIds(Long cartId, List<Long> variantIds) {
+        Map<Long, Long> itemIds = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT product_variant_id, id FROM cart_items WHERE cart_id = ? AND product_variant_id IN ("
+                        + placeholders(variantIds.size()) + ")",
+                rs -> {
+                    itemIds.put(rs.getLong(1), rs.getLong(2));
+                },
+                cartAndIds(cartId, variantIds));
+        return itemIds;
+    }
+
+    /** Those of {@code itemIds} that are lines of the cart. */
+    public Set<Long> findExistingItemIds(Long cartId, Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) return Set.of();
+
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM cart_items WHERE cart_id = ? AND id IN (" + placeholders(itemIds.size()) + ")",
+                Long.class, cartAndIds(cartId, itemIds)));
+    }
+
+    public List<Line> findLines(Long cartId) {
+        return jdbcTemplate.query(
+                "SELECT id, product_variant_id, qty, unit_price_snapshot FROM cart_items WHERE cart_id = ? ORDER BY id",
+                (rs, i) -> new Line(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getBigDecimal(4)),
+                cartId);
+    }
+
+    public void delete(Long cartId, Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) return;
+
+        jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ? AND id IN (" + placeholders(itemIds.size()) + ")",
+                cartAndIds(cartId, itemIds));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Object[] cartAndIds(Long cartId, Collection<Long> ids) {
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(cartId);
+        args.addAll(ids);
+        return args.toArray();
+    }
+}
@@ -4,9 +4,47 @@ import com.craftycorner.model.Cart;
 import com.craftycorner.model.CartItem;
 import com.craftycorner.model.ProductVariant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     Optional<CartItem> findByCartAndProductVariant(Cart cart, ProductVariant variant);
+
+    /**
+     * Adds {@code quantity} to the cart's line for the variant, creating the line if there is
+     * none, in one statement (uk_cart_items_cart_variant). {@code id} is only used for a new
+     * line; an existing line keeps its id and price snapshot.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO cart_items (id, cart_id, product_variant_id, qty, unit_price_snapshot)
+            VALUES (:id, :cartId, :variantId, :quantity, :unitPrice)
+            ON DUPLICATE KEY UPDATE qty = qty + :quantity
+            """, nativeQuery = true)
+    int upsertQuantity(@Param("id") Long id,
+                       @Param("cartId") Long cartId,
+                       @Param("variantId") Long variantId,
+                       @Param("quantity") int quantity,
+                       @Param("unitPrice") BigDecimal unitPrice);
+
+    /** Adds {@code quantity} to the cart's line for the variant; 0 when the cart has none. */
+    @Modifying
+    @Query("""
+            UPDATE CartItem i SET i.quantity = i.quantity + :quantity
+            WHERE i.cart.id = :cartId AND i.productVariant.id = :variantId
+            """)
+    int addQuantity(@Param("cartId") Long cartId,
+                    @Param("variantId") Long variantId,
+                    @Param("quantity") int quantity);
+
+    /** Sets the quantity of one line of the cart; 0 when the cart has no such line. */
+    @Modifying
+    @Query("UPDATE CartItem i SET i.quantity = :quantity WHERE i.id = :itemId AND i.cart.id = :cartId")
+    int updateQuantity(@Param("cartId") Long cartId,
+                       @Param("itemId") Long itemId,
+                       @Param("quantity") int quantity);
 }
@@ -1,12 +1,51 @@
 package com.craftycorner.repository;
 
+import com.craftycorner.dto.cart.CartLineView;
 import com.craftycorner.model.Cart;
 import com.craftycorner.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUser(User user);
     Optional<Cart> findByUserId(Long userId);
+
+    @Query("SELECT c.id FROM Cart c WHERE c.user.email = :email")
+    Optional<Long> findIdByUserEmail(@Param("email") String email);
+
+    // No-op when the user already has a cart (uk_carts_user) or does not exist
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO carts (user_id, created_at, updated_at)
+            SELECT u.id, :now, :now FROM users u WHERE u.email = :email
+            """, nativeQuery = true)
+    int insertIgnoreForUserEmail(@Param("email") String email, @Param("now") Instant now);
+
+    /**
+     * The cart with everything its lines show, in one statement: one row per line, or a
+     * single row without line fields for an empty cart. The image is the product's primary
+     * image, else its first one.
+     */
+    @Query("""
+            SELECT new com.craftycorner.dto.cart.CartLineView(
+                c.id, c.user.id, i.id, i.quantity, v.id, p.title, v.variantName, v.variantValue, v.price,
+                (SELECT img.imageUrl FROM ProductImage img
+                 WHERE img.product = p
+                 ORDER BY CASE WHEN img.primaryImage = true THEN 0 ELSE 1 END, img.id
+                 LIMIT 1)
+            )
+            FROM Cart c
+            LEFT JOIN c.items i
+            LEFT JOIN i.productVariant v
+            LEFT JOIN v.product p
+            WHERE c.id = :cartId
+            ORDER BY i.id
+            """)
+    List<CartLineView> findLineViews(@Param("cartId") Long cartId);
 }
@@ -0,0 +1,49 @@
+package com.craftycorner.repository;
+
+import com.craftycorner.model.IdGenerators;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Reserves id blocks from the same {@link IdGenerators#TABLE} rows Hibernate uses, for code
+ * that writes rows with plain JDBC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdGeneratorRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserves {@code count} consecutive ids of {@code segment} and returns the first. Runs in
+     * its own transaction, like Hibernate's generator, so the row lock is held only briefly
+     * and a rolled-back caller just leaves a gap.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserve(String segment, int count) {
+        List<Long> next = jdbcTemplate.queryForList(
+                "SELECT " + IdGenerators.VALUE_COLUMN + " FROM " + IdGenerators.TABLE
+                        + " WHERE " + IdGenerators.SEGMENT_COLUMN + " = ? FOR UPDATE",
+                Long.class, segment);
+
+        if (next.isEmpty()) {
+            jdbcTemplate.update(
+                    "INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.SEGMENT_COLUMN + ", "
+                            + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)",
+                    segment, IdGenerators.INITIAL_VALUE + count);
+            return IdGenerators.INITIAL_VALUE;
+        }
+
+        long first = next.get(0);
+        jdbcTemplate.update(
+                "UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = ? WHERE "
+                        + IdGenerators.SEGMENT_COLUMN + " = ?",
+                first + count, segment);
+        return first;
+    }
+}
@@ -1,6 +1,8 @@
 package com.craftycorner.repository;
 
+import com.craftycorner.dto.admin.RecentOrderDTO;
 import com.craftycorner.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -37,4 +39,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         WHERE p.vendor.user.id = :vendorUserId
     """)
     List<Order> findOrdersByVendorUserId(@Param("vendorUserId") Long vendorUserId);
+
+    // (status, count) pairs
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countByStatus();
+
+    @Query("""
+        SELECT new com.craftycorner.dto.admin.RecentOrderDTO(
+            o.id, u.name, u.email, o.status, o.totalAmount, o.createdAt)
+        FROM Order o
+        JOIN o.user u
+        ORDER BY o.createdAt DESC, o.id DESC
+    """)
+    List<RecentOrderDTO> findRecent(Pageable pageable);
 }
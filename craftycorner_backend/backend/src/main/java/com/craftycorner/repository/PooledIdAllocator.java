@@ -0,0 +1,55 @@
+package com.craftycorner.repository;
+
+import com.craftycorner.model.IdGenerators;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single ids for rows written with native SQL, handed out from blocks of
+ * {@link IdGenerators#ALLOCATION_SIZE} like Hibernate's pooled-lo optimizer does, so a
+ * native insert costs a generator round trip only once per block. Ids of a block that is
+ * not used up before shutdown are skipped.
+ * <p>
+ * No lock is held while a block is reserved: callers that find the block used up each
+ * reserve one and the first to swap it in wins; the others take one id of their own block
+ * and skip the rest.
+ */
+@Repository
+public class PooledIdAllocator {
+
+    private final IdGeneratorRepository idGeneratorRepository;
+    private final Map<String, AtomicReference<Block>> blocks = new ConcurrentHashMap<>();
+
+    public PooledIdAllocator(IdGeneratorRepository idGeneratorRepository) {
+        this.idGeneratorRepository = idGeneratorRepository;
+    }
+
+    public long next(String segment) {
+        AtomicReference<Block> current = blocks.computeIfAbsent(segment, s -> new AtomicReference<>(Block.EMPTY));
+        Block block = current.get();
+        long id = block.next.getAndIncrement();
+        if (id < block.end) return id;
+
+        long first = idGeneratorRepository.reserve(segment, IdGenerators.ALLOCATION_SIZE);
+        current.compareAndSet(block, new Block(first + 1, first + IdGenerators.ALLOCATION_SIZE));
+        return first;
+    }
+
+    /** Ids from {@code next} up to {@code end} (exclusive). */
+    private static final class Block {
+
+        private static final Block EMPTY = new Block(0, 0);
+
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long next, long end) {
+            this.next = new AtomicLong(next);
+            this.end = end;
+        }
+    }
+}
@@ -2,12 +2,19 @@ package com.craftycorner.repository;
 
 import com.craftycorner.model.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
 
     List<ProductImage> findByProductId(Long productId);
 
+    // (product id, image url) pairs
+    @Query("SELECT i.product.id, i.imageUrl FROM ProductImage i WHERE i.product.id IN :productIds ORDER BY i.id")
+    List<Object[]> findUrlsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
     long countByProductId(Long productId);
 }
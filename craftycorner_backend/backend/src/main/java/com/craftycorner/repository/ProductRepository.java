@@ -1,16 +1,90 @@
 package com.craftycorner.repository;
 
+import com.craftycorner.dto.product.ProductRow;
+import com.craftycorner.model.OnboardingStatus;
 import com.craftycorner.model.Product;
 import com.craftycorner.model.ProductStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
+    // Catalog read path: flat rows without entity graphs; tags and images are fetched by id batch
+    String PRODUCT_ROW = """
+        SELECT new com.craftycorner.dto.product.ProductRow(
+            p.id, p.title, p.description, p.basePrice, p.madeToOrder, p.leadTimeDays, p.status,
+            p.createdAt, p.updatedAt, c.id, c.name, v.shopName)
+        FROM Product p
+        LEFT JOIN p.category c
+        LEFT JOIN p.vendor v
+        """;
+
+    @Query(PRODUCT_ROW + "ORDER BY p.id")
+    List<ProductRow> findAllRows();
+
+    @Query(PRODUCT_ROW + "WHERE p.status = :status ORDER BY p.id")
+    List<ProductRow> findRowsByStatus(@Param("status") ProductStatus status);
+
+    @Query(PRODUCT_ROW + "WHERE p.status = :status AND v.onboardingStatus = :vendorStatus ORDER BY p.id")
+    List<ProductRow> findRowsByStatusAndVendorStatus(
+            @Param("status") ProductStatus status,
+            @Param("vendorStatus") OnboardingStatus vendorStatus
+    );
+
+    @Query(PRODUCT_ROW + "WHERE v.id = :vendorId ORDER BY p.id")
+    List<ProductRow> findRowsByVendorId(@Param("vendorId") Long vendorId);
+
+    @Query(PRODUCT_ROW + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductRow> findRecentRows(Pageable pageable);
+
+    @Query(PRODUCT_ROW + "ORDER BY p.id DESC")
+    List<ProductRow> findRowsByIdDesc(Pageable pageable);
+
+    // (status, count) pairs
+    @Query("SELECT p.status, COUNT(p) FROM Product p GROUP BY p.status")
+    List<Object[]> countByStatus();
+
+    @Query(PRODUCT_ROW + "WHERE p.id IN :ids")
+    List<ProductRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(PRODUCT_ROW + "WHERE p.id IN :ids AND p.status = :status AND v.onboardingStatus = :vendorStatus")
+    List<ProductRow> findRowsByIdInAndStatusAndVendorStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") ProductStatus status,
+            @Param("vendorStatus") OnboardingStatus vendorStatus
+    );
+
+    @Query("SELECT p.id FROM Product p WHERE p.vendor.id = :vendorId")
+    List<Long> findIdsByVendorId(@Param("vendorId") Long vendorId);
+
+    @Query("SELECT p.id FROM Product p WHERE p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    // Serializes writers that must not race on the same product (e.g. creating its default variant)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    // (product id, tag name) pairs
+    @Query("SELECT p.id, t.name FROM Product p JOIN p.tags t WHERE p.id IN :ids")
+    List<Object[]> findTagNamesByProductIdIn(@Param("ids") Collection<Long> ids);
+
     List<Product> findByVendor_Id(Long vendorId);
 
     List<Product> findByStatus(ProductStatus status);
@@ -24,22 +98,151 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE UPPER(p.status) = 'ACTIVE'")
     List<Product> findAllActiveProducts();
 
+    @Query("SELECT p.id FROM Product p WHERE p.status = :status ORDER BY p.id")
+    List<Long> findIdsByStatus(@Param("status") ProductStatus status);
+
+    @Query("SELECT p.id FROM Product p WHERE p.updatedAt >= :since")
+    List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
+    // Marks a product as changed when only rows that reference it (images) were written
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.updatedAt = :now WHERE p.id = :id")
+    void touch(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Vendor and category names are part of every product representation
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.updatedAt = :now WHERE p.vendor.id = :vendorId")
+    void touchByVendorId(@Param("vendorId") Long vendorId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.updatedAt = :now WHERE p.category.id = :categoryId")
+    void touchByCategoryId(@Param("categoryId") Long categoryId, @Param("now") LocalDateTime now);
+
+    @Query("""
+        SELECT DISTINCT p FROM Product p
+        LEFT JOIN FETCH p.category
+        LEFT JOIN FETCH p.vendor
+        LEFT JOIN FETCH p.tags
+        LEFT JOIN FETCH p.images
+        WHERE p.id IN :ids
+        """)
+    List<Product> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+        SELECT DISTINCT p FROM Product p
+        LEFT JOIN FETCH p.category
+        LEFT JOIN FETCH p.vendor
+        LEFT JOIN FETCH p.images
+        WHERE p.id IN :ids
+        """)
+    List<Product> findAllWithImagesByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query(value = """
-        SELECT * FROM products p 
+        SELECT p.id FROM products p
         WHERE UPPER(p.status) = 'ACTIVE'
           AND (:keyword IS NULL OR LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%'))
                OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))
           AND (:category IS NULL OR p.category_id IN (
                 SELECT c.id FROM category c WHERE LOWER(c.name) = LOWER(:category)
           ))
-        ORDER BY 
-          CASE WHEN :sortBy = 'priceasc' THEN p.base_price END ASC,
-          CASE WHEN :sortBy = 'pricedesc' THEN p.base_price END DESC,
-          CASE WHEN :sortBy = 'newest' THEN p.created_at END DESC
+          AND (:minPrice IS NULL OR p.base_price >= :minPrice)
+          AND (:maxPrice IS NULL OR p.base_price <= :maxPrice)
+          AND (:afterId IS NULL
+               OR (:sortBy = 'priceasc' AND (COALESCE(p.base_price, 0) > :afterPrice
+                    OR (COALESCE(p.base_price, 0) = :afterPrice AND p.id > :afterId)))
+               OR (:sortBy = 'pricedesc' AND (COALESCE(p.base_price, 0) < :afterPrice
+                    OR (COALESCE(p.base_price, 0) = :afterPrice AND p.id < :afterId)))
+               OR (:sortBy = 'newest' AND (p.created_at < :afterCreatedAt
+                    OR (p.created_at = :afterCreatedAt AND p.id < :afterId))))
+        ORDER BY
+          CASE WHEN :sortBy = 'priceasc' THEN COALESCE(p.base_price, 0) END ASC,
+          CASE WHEN :sortBy = 'pricedesc' THEN COALESCE(p.base_price, 0) END DESC,
+          CASE WHEN :sortBy = 'newest' THEN p.created_at END DESC,
+          CASE WHEN :sortBy = 'priceasc' THEN p.id END ASC,
+          p.id DESC
+        LIMIT :limit OFFSET :offset
         """, nativeQuery = true)
-    List<Product> searchProductsNative(
+    List<Long> searchProductIdsNative(
             @Param("keyword") String keyword,
             @Param("category") String category,
-            @Param("sortBy") String sortBy
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("sortBy") String sortBy,
+            @Param("afterPrice") BigDecimal afterPrice,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            @Param("limit") int limit,
+            @Param("offset") long offset
+    );
+
+    @Query(value = """
+        SELECT COUNT(*) FROM products p
+        WHERE UPPER(p.status) = 'ACTIVE'
+          AND (:keyword IS NULL OR LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%'))
+               OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))
+          AND (:category IS NULL OR p.category_id IN (
+                SELECT c.id FROM category c WHERE LOWER(c.name) = LOWER(:category)
+          ))
+          AND (:minPrice IS NULL OR p.base_price >= :minPrice)
+          AND (:maxPrice IS NULL OR p.base_price <= :maxPrice)
+        """, nativeQuery = true)
+    long countSearchProductsNative(
+            @Param("keyword") String keyword,
+            @Param("category") String category,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice
+    );
+
+    // Keyset pages of the storefront catalog; pass a null afterId for the first page
+
+    @Query("""
+        SELECT p.id FROM Product p
+        WHERE p.status = :status
+          AND p.vendor.onboardingStatus = :vendorStatus
+          AND (:afterId IS NULL OR p.createdAt < :afterCreatedAt
+               OR (p.createdAt = :afterCreatedAt AND p.id < :afterId))
+        ORDER BY p.createdAt DESC, p.id DESC
+        """)
+    List<Long> findCatalogIdsNewest(
+            @Param("status") ProductStatus status,
+            @Param("vendorStatus") OnboardingStatus vendorStatus,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @Query("""
+        SELECT p.id FROM Product p
+        WHERE p.status = :status
+          AND p.vendor.onboardingStatus = :vendorStatus
+          AND (:afterId IS NULL OR COALESCE(p.basePrice, 0) > :afterPrice
+               OR (COALESCE(p.basePrice, 0) = :afterPrice AND p.id > :afterId))
+        ORDER BY COALESCE(p.basePrice, 0) ASC, p.id ASC
+        """)
+    List<Long> findCatalogIdsPriceAsc(
+            @Param("status") ProductStatus status,
+            @Param("vendorStatus") OnboardingStatus vendorStatus,
+            @Param("afterPrice") BigDecimal afterPrice,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @Query("""
+        SELECT p.id FROM Product p
+        WHERE p.status = :status
+          AND p.vendor.onboardingStatus = :vendorStatus
+          AND (:afterId IS NULL OR COALESCE(p.basePrice, 0) < :afterPrice
+               OR (COALESCE(p.basePrice, 0) = :afterPrice AND p.id < :afterId))
+        ORDER BY COALESCE(p.basePrice, 0) DESC, p.id DESC
+        """)
+    List<Long> findCatalogIdsPriceDesc(
+            @Param("status") ProductStatus status,
+            @Param("vendorStatus") OnboardingStatus vendorStatus,
+            @Param("afterPrice") BigDecimal afterPrice,
+            @Param("afterId") Long afterId,
+            Pageable pageable
     );
 }
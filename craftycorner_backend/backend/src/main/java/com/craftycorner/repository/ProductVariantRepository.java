@@ -1,11 +1,55 @@
 package com.craftycorner.repository;
 
+import com.craftycorner.dto.cart.CartVariantView;
 import com.craftycorner.model.ProductVariant;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long> {
 
     List<ProductVariant> findByProductId(Long productId);
+
+    /** The product's oldest variant, which add-to-cart by product id uses. */
+    Optional<ProductVariant> findFirstByProductIdOrderByIdAsc(Long productId);
+
+    /** The oldest variant of each of {@code productIds} that has any. */
+    @Query("""
+            SELECT v FROM ProductVariant v
+            WHERE v.id IN (
+                SELECT MIN(v2.id) FROM ProductVariant v2
+                WHERE v2.product.id IN :productIds
+                GROUP BY v2.product.id
+            )
+            """)
+    List<ProductVariant> findOldestByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    /** Display data for cart lines; the image is the product's primary image, else its first one. */
+    @Query("""
+            SELECT new com.craftycorner.dto.cart.CartVariantView(
+                v.id, p.title, v.variantName, v.variantValue, v.price,
+                (SELECT img.imageUrl FROM ProductImage img
+                 WHERE img.product = p
+                 ORDER BY CASE WHEN img.primaryImage = true THEN 0 ELSE 1 END, img.id
+                 LIMIT 1)
+            )
+            FROM ProductVariant v JOIN v.product p
+            WHERE v.id IN :ids
+            """)
+    List<CartVariantView> findCartViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Locking read: sees variants committed after the transaction's snapshot was taken
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT v FROM ProductVariant v
+            WHERE v.product.id = :productId
+            ORDER BY v.id
+            """)
+    List<ProductVariant> findByProductIdForUpdate(@Param("productId") Long productId);
 }
@@ -0,0 +1,166 @@
+package com.craftycorner.repository;
+
+import com.craftycorner.event.TagCreatedEvent;
+import com.craftycorner.model.IdGenerators;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned tag name to id mapping, so product writes resolve a whole tag list at once
+ * instead of a lookup (and maybe an insert) per name.
+ * <p>
+ * Names not in memory are looked up with one query; those still missing are created with
+ * one multi-row {@code INSERT IGNORE}, so a writer that loses a race to create the same tag
+ * just reads the winner's id. Its transaction may not see a row that a concurrent writer
+ * committed mid-flight (a snapshot taken before the insert, or a skipped insert whose
+ * winner had not committed yet), so names still missing are retried in a fresh
+ * transaction. Creation commits in its own transaction before any id is
+ * remembered or returned, which keeps the map to rows every writer can see. Tags are never
+ * renamed or deleted, so an entry cannot go stale.
+ */
+@Repository
+public class TagDictionary {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final IdGeneratorRepository idGeneratorRepository;
+    private final TransactionTemplate newTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TagDictionary(
+            JdbcTemplate jdbcTemplate,
+            IdGeneratorRepository idGeneratorRepository,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGeneratorRepository = idGeneratorRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Ids for {@code names} in their given order, creating the tags that do not exist yet.
+     * Names are trimmed; blank names and repeats are dropped.
+     * <p>
+     * When a concurrent writer is creating one of the names, this may retry up to
+     * {@value #MAX_ATTEMPTS} times in total, sleeping 20 to 50 ms before each retry (at most
+     * 140 ms overall). A caller inside its own transaction keeps its connection and row locks
+     * for that time, so resolve tags before taking locks that other writers wait on.
+     */
+    public Map<String, Long> resolve(Collection<String> names) {
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name == null || name.isBlank()) continue;
+            wanted.add(name.trim());
+        }
+
+        List<String> missing = wanted.stream().filter(name -> !ids.containsKey(name)).toList();
+        Map<String, Long> loaded = missing.isEmpty() ? Map.of() : loadOrCreate(missing);
+
+        Map<String, Long> resolved = new LinkedHashMap<>();
+        for (String name : wanted) {
+            Long id = ids.containsKey(name) ? ids.get(name) : loaded.get(name);
+            if (id == null) throw new IllegalStateException("Tag could not be resolved: " + name);
+            resolved.put(name, id);
+        }
+        return resolved;
+    }
+
+    public Long resolve(String name) {
+        return resolve(List.of(name)).get(name.trim());
+    }
+
+    private Map<String, Long> loadOrCreate(List<String> names) {
+        Map<String, Long> found = new HashMap<>();
+        List<String> pending = names;
+        for (int attempt = 1; !pending.isEmpty() && attempt <= MAX_ATTEMPTS; attempt++) {
+            if (attempt > 1) backOff(attempt);
+            found.putAll(loadOrCreateOnce(pending));
+            pending = pending.stream().filter(name -> !found.containsKey(name)).toList();
+        }
+        return found;
+    }
+
+    private Map<String, Long> loadOrCreateOnce(List<String> names) {
+        Map<String, Long> found = newTransaction.execute(status -> {
+            Map<String, Long> existing = select(names);
+            List<String> absent = names.stream().filter(name -> !existing.containsKey(name)).toList();
+            if (absent.isEmpty()) return existing;
+
+            long firstId = idGeneratorRepository.reserve(IdGenerators.TAGS, absent.size());
+            insertIgnore(absent, firstId);
+            Map<String, Long> created = select(absent);
+            created.forEach((name, id) -> {
+                // Only ids from our block are tags we created; others won a race with us
+                if (id >= firstId && id < firstId + absent.size()) {
+                    eventPublisher.publishEvent(new TagCreatedEvent(name));
+                }
+            });
+            existing.putAll(created);
+            return existing;
+        });
+        ids.putAll(found);
+        return found;
+    }
+
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(10L * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while resolving tags", e);
+        }
+    }
+
+    private void insertIgnore(List<String> names, long firstId) {
+        StringBuilder sql = new StringBuilder("INSERT IGNORE INTO tags (id, name) VALUES ");
+        List<Object> args = new ArrayList<>(names.size() * 2);
+        for (int i = 0; i < names.size(); i++) {
+            sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+            args.add(firstId + i);
+            args.add(names.get(i));
+        }
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Existing ids keyed by the requested spelling. The column may compare case-insensitively,
+     * in which case a name can come back as an existing tag spelled differently.
+     */
+    private Map<String, Long> select(List<String> names) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) placeholders.append(i == 0 ? "?" : ", ?");
+
+        Map<String, Long> byName = new HashMap<>();
+        Map<String, Long> byLowerName = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM tags WHERE name IN (" + placeholders + ")", rs -> {
+            byName.put(rs.getString("name"), rs.getLong("id"));
+            byLowerName.putIfAbsent(rs.getString("name").toLowerCase(), rs.getLong("id"));
+        }, names.toArray());
+
+        Map<String, Long> found = new HashMap<>();
+        for (String name : names) {
+            Long id = byName.containsKey(name) ? byName.get(name) : byLowerName.get(name.toLowerCase());
+            if (id != null) found.put(name, id);
+        }
+        return found;
+    }
+}
@@ -0,0 +1,48 @@
+package com.craftycorner.search;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collection-wide statistics for BM25F: document count, document frequency per term and
+ * total length per scored field. Shards of one catalog share a single instance, so their
+ * scores stay comparable when their top hits are merged.
+ */
+class CorpusStats {
+
+    private final AtomicInteger documents = new AtomicInteger();
+    private final ConcurrentHashMap<String, Integer> documentFrequencies = new ConcurrentHashMap<>();
+    private final AtomicLongArray fieldLengthTotals = new AtomicLongArray(FieldStats.Field.values().length);
+
+    void add(SearchDocument document) {
+        update(document, 1);
+    }
+
+    void remove(SearchDocument document) {
+        update(document, -1);
+    }
+
+    double idf(String term) {
+        int documentFrequency = documentFrequencies.getOrDefault(term, 0);
+        return Math.log(1 + (documents.get() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    double averageLength(FieldStats.Field field) {
+        int count = documents.get();
+        return count == 0 ? 0 : (double) fieldLengthTotals.get(field.ordinal()) / count;
+    }
+
+    private void update(SearchDocument document, int delta) {
+        documents.addAndGet(delta);
+        for (String term : document.getTerms()) {
+            documentFrequencies.compute(term, (t, count) -> {
+                int updated = (count != null ? count : 0) + delta;
+                return updated > 0 ? updated : null;
+            });
+        }
+        for (FieldStats.Field field : FieldStats.Field.values()) {
+            fieldLengthTotals.addAndGet(field.ordinal(), (long) delta * document.getFieldStats().length(field));
+        }
+    }
+}
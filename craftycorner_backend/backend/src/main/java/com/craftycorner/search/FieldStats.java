@@ -0,0 +1,67 @@
+package com.craftycorner.search;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-field term frequencies and field lengths of one document, precomputed at index time
+ * for BM25F relevance scoring. Only the fields in {@link Field} are scored; category and
+ * vendor terms still match but do not add to the score.
+ */
+public final class FieldStats {
+
+    static final FieldStats EMPTY = new FieldStats(Map.of(), new int[Field.values().length]);
+
+    /** Scored fields with their BM25F boost and length normalization. */
+    enum Field {
+        TITLE(3.0, 0.75),
+        DESCRIPTION(1.0, 0.75),
+        TAGS(2.0, 0.5);
+
+        final double boost;
+        final double b;
+
+        Field(double boost, double b) {
+            this.boost = boost;
+            this.b = b;
+        }
+    }
+
+    private final Map<String, int[]> frequencies;
+    private final int[] lengths;
+
+    private FieldStats(Map<String, int[]> frequencies, int[] lengths) {
+        this.frequencies = frequencies;
+        this.lengths = lengths;
+    }
+
+    public static FieldStats of(String title, String description, List<String> tags) {
+        Map<String, int[]> frequencies = new HashMap<>();
+        int[] lengths = new int[Field.values().length];
+
+        count(frequencies, lengths, Field.TITLE, SearchTokenizer.tokenize(title));
+        count(frequencies, lengths, Field.DESCRIPTION, SearchTokenizer.tokenize(description));
+        for (String tag : tags) {
+            count(frequencies, lengths, Field.TAGS, SearchTokenizer.tokenize(tag));
+        }
+        return new FieldStats(Collections.unmodifiableMap(frequencies), lengths);
+    }
+
+    private static void count(Map<String, int[]> frequencies, int[] lengths, Field field, List<String> tokens) {
+        for (String token : tokens) {
+            frequencies.computeIfAbsent(token, t -> new int[Field.values().length])[field.ordinal()]++;
+        }
+        lengths[field.ordinal()] += tokens.size();
+    }
+
+    /** Scored terms mapped to their frequency per {@link Field}, indexed by ordinal. */
+    Map<String, int[]> frequencies() {
+        return frequencies;
+    }
+
+    int length(Field field) {
+        return lengths[field.ordinal()];
+    }
+}
@@ -0,0 +1,266 @@
+package com.craftycorner.search;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap over non-negative int ids, laid out like a Roaring bitmap: ids are
+ * grouped by their high 16 bits, and each group is stored either as a sorted array (sparse)
+ * or as a 65536-bit bitmap (dense), whichever is smaller.
+ * <p>
+ * Not thread-safe; {@link ProductSearchIndex} guards its bitmaps with its own lock.
+ */
+public class IdBitmap {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private char[] keys = new char[INITIAL_CAPACITY];
+    private Container[] containers = new Container[INITIAL_CAPACITY];
+    private int size;
+
+    public void add(int id) {
+        char high = highBits(id);
+        int i = indexOf(high);
+        if (i >= 0) {
+            containers[i] = containers[i].add(lowBits(id));
+        } else {
+            insertAt(-i - 1, high, new ArrayContainer().add(lowBits(id)));
+        }
+    }
+
+    public void remove(int id) {
+        int i = indexOf(highBits(id));
+        if (i < 0) return;
+
+        Container container = containers[i].remove(lowBits(id));
+        if (container.cardinality() == 0) {
+            removeAt(i);
+        } else {
+            containers[i] = container;
+        }
+    }
+
+    public boolean contains(int id) {
+        int i = indexOf(highBits(id));
+        return i >= 0 && containers[i].contains(lowBits(id));
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) total += containers[i].cardinality();
+        return total;
+    }
+
+    /** Size of the intersection with {@code other}, without materializing it. */
+    public int andCardinality(IdBitmap other) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                total += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    private int indexOf(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertAt(int index, char high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = high;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    private static char highBits(int id) {
+        if (id < 0) throw new IllegalArgumentException("Negative id: " + id);
+        return (char) (id >>> 16);
+    }
+
+    private static char lowBits(int id) {
+        return (char) id;
+    }
+
+    private abstract static class Container {
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract int andCardinality(Container other);
+    }
+
+    /** Sorted values; used while a group holds at most {@link #MAX_SIZE} ids. */
+    private static final class ArrayContainer extends Container {
+
+        static final int MAX_SIZE = 4096;
+
+        private char[] values = new char[INITIAL_CAPACITY];
+        private int cardinality;
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) return this;
+
+            if (cardinality == MAX_SIZE) {
+                return toBitmap().add(value);
+            }
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.max(INITIAL_CAPACITY, Math.min(MAX_SIZE, cardinality * 2)));
+            }
+            int at = -i - 1;
+            System.arraycopy(values, at, values, at + 1, cardinality - at);
+            values[at] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.andCardinality(this);
+            }
+
+            ArrayContainer that = (ArrayContainer) other;
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < that.cardinality) {
+                if (values[i] < that.values[j]) {
+                    i++;
+                } else if (values[i] > that.values[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+            return count;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) bitmap.add(values[i]);
+            return bitmap;
+        }
+    }
+
+    /** Plain 2^16-bit bitmap; used once a group is too dense for an array. */
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words = new long[1024];
+        private int cardinality;
+
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            long after = before | (1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long before = words[value >>> 6];
+            long after = before & ~(1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality--;
+            }
+            return cardinality <= ArrayContainer.MAX_SIZE ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer array) {
+                int count = 0;
+                for (int i = 0; i < array.cardinality; i++) {
+                    if (contains(array.values[i])) count++;
+                }
+                return count;
+            }
+
+            BitmapContainer that = (BitmapContainer) other;
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                count += Long.bitCount(words[i] & that.words[i]);
+            }
+            return count;
+        }
+
+        private ArrayContainer toArray() {
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[cardinality];
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    array.values[array.cardinality++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return array;
+        }
+    }
+}
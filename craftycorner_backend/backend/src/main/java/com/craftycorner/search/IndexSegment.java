@@ -0,0 +1,228 @@
+package com.craftycorner.search;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable on-disk snapshot of the search index, so startup does not rebuild it from the
+ * database.
+ * <p>
+ * This is a snapshot, not a memory-mapped index: {@link #open} maps the file only to read it
+ * once and decodes every document onto the heap. Each document's term set comes from the
+ * stored postings, but field statistics are recomputed, and the in-heap index then rebuilds
+ * its own postings and facets. Loading therefore still costs CPU and heap in proportion to
+ * the catalog; what it saves is the database round trips.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ *   header        magic, version, high-water mark, document count
+ *   doc values    fixed-width rows per document: id, price (unscaled + scale), created_at
+ *   stored fields offset table, then per document: title, description, category, vendor,
+ *                 tags and image urls
+ *   postings      sorted terms, each with the ordinals of the documents containing it
+ * </pre>
+ * The high-water mark is the {@code products.updated_at} up to which the snapshot is
+ * known to be complete; changes after it are replayed from the database on startup.
+ */
+public class IndexSegment {
+
+    private static final int MAGIC = 0x43435349; // "CCSI"
+    private static final int VERSION = 1;
+    private static final int DOC_VALUES_WIDTH = Long.BYTES * 3 + Integer.BYTES * 2;
+    private static final int NULL_MARKER = -1;
+
+    private final LocalDateTime highWaterMark;
+    private final List<SearchDocument> documents;
+
+    private IndexSegment(LocalDateTime highWaterMark, List<SearchDocument> documents) {
+        this.highWaterMark = highWaterMark;
+        this.documents = documents;
+    }
+
+    public LocalDateTime getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public List<SearchDocument> getDocuments() {
+        return documents;
+    }
+
+    /** Writes a segment for {@code documents}; the file is complete once this returns. */
+    public static void write(Path file, List<SearchDocument> documents, LocalDateTime highWaterMark) throws IOException {
+        Map<String, List<Integer>> postings = new TreeMap<>();
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        DataOutputStream storedOut = new DataOutputStream(stored);
+        int[] offsets = new int[documents.size()];
+
+        for (int ordinal = 0; ordinal < documents.size(); ordinal++) {
+            SearchDocument document = documents.get(ordinal);
+            offsets[ordinal] = storedOut.size();
+            writeString(storedOut, document.getTitle());
+            writeString(storedOut, document.getDescription());
+            storedOut.writeLong(document.getCategoryId() != null ? document.getCategoryId() : NULL_MARKER);
+            writeString(storedOut, document.getCategoryName());
+            writeString(storedOut, document.getVendorName());
+            writeStrings(storedOut, document.getTags());
+            writeStrings(storedOut, document.getImageUrls());
+
+            for (String term : document.getTerms()) {
+                postings.computeIfAbsent(term, t -> new ArrayList<>()).add(ordinal);
+            }
+        }
+
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeDateTime(out, highWaterMark);
+            out.writeInt(documents.size());
+
+            for (SearchDocument document : documents) {
+                out.writeLong(document.getId());
+                BigDecimal price = document.getBasePrice();
+                out.writeLong(price != null ? price.unscaledValue().longValueExact() : 0);
+                out.writeInt(price != null ? price.scale() : NULL_MARKER);
+                writeDateTime(out, document.getCreatedAt());
+            }
+
+            for (int offset : offsets) out.writeInt(offset);
+            out.writeInt(stored.size());
+            stored.writeTo(out);
+
+            out.writeInt(postings.size());
+            for (Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (int ordinal : entry.getValue()) out.writeInt(ordinal);
+            }
+        }
+    }
+
+    /** Reads {@code file} through a temporary mapping and decodes all of it into search documents. */
+    public static IndexSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a search index segment: " + file);
+            }
+            LocalDateTime highWaterMark = readDateTime(buffer);
+            int count = buffer.getInt();
+
+            int docValuesStart = buffer.position();
+            int offsetsStart = docValuesStart + count * DOC_VALUES_WIDTH;
+            buffer.position(offsetsStart + count * Integer.BYTES);
+            int storedLength = buffer.getInt();
+            int storedStart = buffer.position();
+
+            // Invert the postings back into each document's term set
+            buffer.position(storedStart + storedLength);
+            List<Set<String>> terms = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) terms.add(new HashSet<>());
+            int termCount = buffer.getInt();
+            for (int t = 0; t < termCount; t++) {
+                String term = readString(buffer);
+                int size = buffer.getInt();
+                for (int i = 0; i < size; i++) terms.get(buffer.getInt()).add(term);
+            }
+
+            List<SearchDocument> documents = new ArrayList<>(count);
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                ByteBuffer docValues = buffer.duplicate().position(docValuesStart + ordinal * DOC_VALUES_WIDTH);
+                long id = docValues.getLong();
+                long unscaledPrice = docValues.getLong();
+                int scale = docValues.getInt();
+                LocalDateTime createdAt = readDateTime(docValues);
+
+                ByteBuffer fields = buffer.duplicate().position(storedStart + buffer.getInt(offsetsStart + ordinal * Integer.BYTES));
+                String title = readString(fields);
+                String description = readString(fields);
+                long categoryId = fields.getLong();
+                String categoryName = readString(fields);
+                String vendorName = readString(fields);
+                List<String> tags = readStrings(fields);
+                List<String> imageUrls = readStrings(fields);
+
+                documents.add(SearchDocument.builder()
+                        .id(id)
+                        .title(title)
+                        .description(description)
+                        .categoryId(categoryId != NULL_MARKER ? categoryId : null)
+                        .categoryName(categoryName)
+                        .vendorName(vendorName)
+                        .basePrice(scale != NULL_MARKER ? new BigDecimal(BigInteger.valueOf(unscaledPrice), scale) : null)
+                        .createdAt(createdAt)
+                        .tags(tags)
+                        .imageUrls(imageUrls)
+                        .terms(Set.copyOf(terms.get(ordinal)))
+                        .fieldStats(FieldStats.of(title, description, tags))
+                        .build());
+            }
+            return new IndexSegment(highWaterMark, documents);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt search index segment: " + file, e);
+        }
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeLong(value != null ? value.toEpochSecond(ZoneOffset.UTC) : 0);
+        out.writeInt(value != null ? value.getNano() : NULL_MARKER);
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return nanos != NULL_MARKER ? LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_MARKER);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_MARKER) return null;
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) writeString(out, value);
+    }
+
+    private static List<String> readStrings(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) values.add(readString(buffer));
+        return List.copyOf(values);
+    }
+}
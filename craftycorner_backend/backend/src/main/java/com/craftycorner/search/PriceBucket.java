@@ -0,0 +1,37 @@
+package com.craftycorner.search;
+
+import java.math.BigDecimal;
+
+/** Fixed price ranges reported as search facets; lower bound inclusive, upper exclusive. */
+public enum PriceBucket {
+    UNDER_500("0-500", null, new BigDecimal("500")),
+    FROM_500("500-1000", new BigDecimal("500"), new BigDecimal("1000")),
+    FROM_1000("1000-2500", new BigDecimal("1000"), new BigDecimal("2500")),
+    FROM_2500("2500-5000", new BigDecimal("2500"), new BigDecimal("5000")),
+    FROM_5000("5000+", new BigDecimal("5000"), null);
+
+    private final String label;
+    private final BigDecimal min;
+    private final BigDecimal max;
+
+    PriceBucket(String label, BigDecimal min, BigDecimal max) {
+        this.label = label;
+        this.min = min;
+        this.max = max;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static PriceBucket of(BigDecimal price) {
+        if (price == null) return null;
+        for (PriceBucket bucket : values()) {
+            if ((bucket.min == null || price.compareTo(bucket.min) >= 0)
+                    && (bucket.max == null || price.compareTo(bucket.max) < 0)) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.craftycorner.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for product listings. It carries the sort key of the last row a
+ * client has seen plus its id, so the next page starts right after that row no matter how
+ * deep the client is or how many products were inserted in the meantime.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCursor {
+
+    private final SearchSort sort;
+    private final Long id;
+    private final BigDecimal price;
+    private final LocalDateTime createdAt;
+
+    /** Relevance score of the last row; only set for {@link SearchSort#RELEVANCE}. */
+    private final Double score;
+
+    public ProductCursor(SearchSort sort, Long id, BigDecimal price, LocalDateTime createdAt) {
+        this(sort, id, price, createdAt, null);
+    }
+
+    /**
+     * Price as the price sorts and their cursors order it: a missing price counts as zero, in
+     * the index as in the SQL keyset, so a cursor from either path continues on the other.
+     */
+    public static BigDecimal priceKey(BigDecimal price) {
+        return price != null ? price : BigDecimal.ZERO;
+    }
+
+    public String encode() {
+        String raw = sort.getParam()
+                + "|" + id
+                + "|" + (price != null ? price.toPlainString() : "")
+                + "|" + (createdAt != null ? createdAt.toString() : "")
+                + "|" + (score != null ? Double.toString(score) : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decodes a token produced by {@link #encode()}; it must have been issued for the same sort. */
+    public static ProductCursor decode(String token, SearchSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length < 4 || parts.length > 5 || SearchSort.fromParam(parts[0]) != expectedSort) {
+                throw new RuntimeException("Cursor does not match sort order: " + expectedSort.getParam());
+            }
+
+            return new ProductCursor(
+                    expectedSort,
+                    Long.valueOf(parts[1]),
+                    parts[2].isEmpty() ? null : new BigDecimal(parts[2]),
+                    parts[3].isEmpty() ? null : LocalDateTime.parse(parts[3]),
+                    parts.length < 5 || parts[4].isEmpty() ? null : Double.valueOf(parts[4])
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor: " + token);
+        }
+    }
+
+    SearchDocument asProbe() {
+        return SearchDocument.builder()
+                .id(id)
+                .basePrice(price)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,205 @@
+package com.craftycorner.search;
+
+import com.craftycorner.event.ProductChangedEvent;
+import com.craftycorner.event.SearchIndexChangedEvent;
+import com.craftycorner.event.VendorChangedEvent;
+import com.craftycorner.model.ProductStatus;
+import com.craftycorner.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process keyword search over ACTIVE products.
+ * <p>
+ * On startup the index is loaded from the newest on-disk segment, and only products
+ * updated after the segment's high-water mark (plus products added or deleted since) are
+ * reloaded from the database; without a segment the index is built from scratch. It is
+ * kept in sync through {@link ProductChangedEvent}s published by the product write paths
+ * (and {@link VendorChangedEvent}s for the products of a changed vendor)
+ * and periodically written back as a new segment. Until the initial load has finished
+ * {@link #isReady()} is false and callers fall back to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchEngine {
+
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final int REFRESH_STRIPES = 64;
+
+    /** Covers changes committed while a snapshot was taken but not yet applied to the index. */
+    private static final Duration HIGH_WATER_MARK_MARGIN = Duration.ofMinutes(5);
+
+    private final ProductRepository productRepository;
+    private final SearchDocumentLoader documentLoader;
+    private final ProductSuggester suggester;
+    private final SearchSegmentStore segmentStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ShardedSearchIndex index = new ShardedSearchIndex(ForkJoinPool.commonPool());
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock[] refreshLocks = newLocks(REFRESH_STRIPES);
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            List<Long> activeIds = productRepository.findIdsByStatus(ProductStatus.ACTIVE);
+
+            Optional<IndexSegment> segment = segmentStore.openLatest();
+            Collection<Long> toLoad = segment.isPresent() ? replayDelta(segment.get(), activeIds) : activeIds;
+            refreshInBatches(toLoad);
+
+            ready = true;
+            log.info("Product search index ready with {} products ({} loaded from the database)",
+                    index.size(), toLoad.size());
+
+            if (!toLoad.isEmpty()) writeSegment(started);
+        } catch (RuntimeException e) {
+            log.warn("Product search index build failed, search stays on the database query", e);
+        }
+    }
+
+    /** Indexes the segment and returns the ids that still have to be (re)loaded or dropped. */
+    private Collection<Long> replayDelta(IndexSegment segment, List<Long> activeIds) {
+        for (SearchDocument document : segment.getDocuments()) {
+            suggester.onDocumentChanged(index.index(document), document);
+        }
+
+        Set<Long> stale = new HashSet<>(productRepository.findIdsUpdatedSince(segment.getHighWaterMark()));
+        Set<Long> active = new HashSet<>(activeIds);
+        for (SearchDocument document : segment.getDocuments()) {
+            if (!active.remove(document.getId())) stale.add(document.getId());
+        }
+        stale.addAll(active);
+
+        log.info("Loaded search index segment with {} products, replaying {} changed since {}",
+                segment.getDocuments().size(), stale.size(), segment.getHighWaterMark());
+        return stale;
+    }
+
+    private void refreshInBatches(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+            refresh(ids.subList(from, Math.min(from + LOAD_BATCH_SIZE, ids.size())));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.segment.flush-interval-ms:600000}")
+    public void flushSegment() {
+        if (ready && dirty.get()) {
+            writeSegment(LocalDateTime.now());
+        }
+    }
+
+    private void writeSegment(LocalDateTime snapshotTime) {
+        dirty.set(false);
+        try {
+            segmentStore.write(index.documents(), snapshotTime.minus(HIGH_WATER_MARK_MARGIN));
+        } catch (RuntimeException e) {
+            dirty.set(true);
+            log.warn("Could not write search index segment", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        refresh(event.getProductIds());
+    }
+
+    /** Shop names are indexed, and approval decides whether the vendor's products are listed. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVendorChanged(VendorChangedEvent event) {
+        refreshInBatches(productRepository.findIdsByVendorId(event.getVendorProfileId()));
+    }
+
+    /**
+     * Re-reads {@code productIds} and applies them to the index. Refreshes sharing an id are
+     * serialized from load to apply (by lock stripe, taken in ascending order), so the later
+     * refresh also loads later and an older row never overwrites a newer one.
+     */
+    public void refresh(Collection<Long> productIds) {
+        int[] stripes = productIds.stream()
+                .mapToInt(id -> Math.floorMod(id.hashCode(), REFRESH_STRIPES))
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int stripe : stripes) refreshLocks[stripe].lock();
+        try {
+            Map<Long, SearchDocument> loaded = documentLoader.load(productIds)
+                    .stream()
+                    .collect(Collectors.toMap(SearchDocument::getId, Function.identity()));
+
+            Set<String> categories = new HashSet<>();
+            for (Long id : productIds) {
+                SearchDocument document = loaded.get(id);
+                SearchDocument previous = document != null ? index.index(document) : index.remove(id);
+                suggester.onDocumentChanged(previous, document);
+
+                if (previous != null) addCategory(categories, previous);
+                if (document != null) addCategory(categories, document);
+            }
+            dirty.set(true);
+
+            // Before the initial build the index cannot tell which category a product used to be in.
+            // Cached results are dropped before the generation moves on, so a response tagged with
+            // the new generation is never served from a result cached before this change.
+            eventPublisher.publishEvent(new SearchIndexChangedEvent(categories, !ready));
+            generation.incrementAndGet();
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) refreshLocks[stripes[i]].unlock();
+        }
+    }
+
+    private static ReentrantLock[] newLocks(int count) {
+        ReentrantLock[] locks = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) locks[i] = new ReentrantLock();
+        return locks;
+    }
+
+    private static void addCategory(Set<String> categories, SearchDocument document) {
+        String category = SearchTokenizer.normalize(document.getCategoryName());
+        if (category != null) categories.add(category);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Incremented after every change to the index, once the change has been published;
+     * equal generations give equal results.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public SearchResult search(SearchQuery query) {
+        return index.search(query);
+    }
+}
@@ -0,0 +1,381 @@
+package com.craftycorner.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Tokenized inverted index over ACTIVE products.
+ * <p>
+ * Every query token is matched as a prefix of the indexed terms (so "croch" still finds
+ * "crochet", like the old LIKE query did), tokens are AND-ed together, and only the
+ * requested page is kept in a bounded heap instead of sorting the whole hit list. With a
+ * keyset cursor the heap only ever holds one page, however deep the client has scrolled.
+ * The same pass collects the hit set as a bitmap, from which category, tag and price
+ * facet counts are derived.
+ * <p>
+ * In fuzzy mode each token additionally matches the vocabulary terms within one edit
+ * (two for tokens of six or more characters), found through a trigram index and bounded
+ * by {@link #MAX_FUZZY_EXPANSIONS} and the query's time budget.
+ * <p>
+ * The relevance sort scores hits with BM25F over title, description and tags, using the
+ * per-field statistics precomputed in each document and the collection-wide
+ * {@link CorpusStats}; it goes through the same bounded heap.
+ */
+public class ProductSearchIndex {
+
+    static final int MAX_TAG_FACETS = 20;
+    private static final int MAX_FUZZY_EXPANSIONS = 10;
+    private static final int MIN_FUZZY_TOKEN_LENGTH = 3;
+    private static final double BM25_K1 = 1.2;
+    private static final double INEXACT_MATCH_FACTOR = 0.8;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, SearchDocument> documents = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+    private final Map<String, Set<Long>> categories = new HashMap<>();
+    private final TrigramIndex vocabulary = new TrigramIndex();
+    private final CorpusStats stats;
+
+    // Facet bitmaps over document ordinals, intersected with each query's hit set. Product ids
+    // are longs handed out in blocks, so each document gets a dense int ordinal instead; freed
+    // ordinals are reused, keeping them below the number of documents.
+    private final Map<String, IdBitmap> categoryFacets = new HashMap<>();
+    private final Map<String, IdBitmap> tagFacets = new HashMap<>();
+    private final Map<PriceBucket, IdBitmap> priceFacets = new EnumMap<>(PriceBucket.class);
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    public ProductSearchIndex() {
+        this(new CorpusStats());
+    }
+
+    /** An index over part of a catalog, scoring against the statistics of the whole catalog. */
+    ProductSearchIndex(CorpusStats stats) {
+        this.stats = stats;
+    }
+
+    /** Adds or replaces a document; returns the one it replaced, if any. */
+    public SearchDocument index(SearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            SearchDocument previous = removeInternal(document.getId());
+            int docId = assignOrdinal(document.getId());
+
+            documents.put(document.getId(), document);
+            for (String term : document.getTerms()) {
+                postings.computeIfAbsent(term, t -> {
+                    vocabulary.add(t);
+                    return new HashSet<>();
+                }).add(document.getId());
+            }
+            stats.add(document);
+            String category = SearchTokenizer.normalize(document.getCategoryName());
+            if (category != null) {
+                categories.computeIfAbsent(category, c -> new HashSet<>()).add(document.getId());
+            }
+
+            if (document.getCategoryName() != null) {
+                categoryFacets.computeIfAbsent(document.getCategoryName(), c -> new IdBitmap()).add(docId);
+            }
+            for (String tag : document.getTags()) {
+                tagFacets.computeIfAbsent(tag, t -> new IdBitmap()).add(docId);
+            }
+            PriceBucket bucket = PriceBucket.of(document.getBasePrice());
+            if (bucket != null) {
+                priceFacets.computeIfAbsent(bucket, b -> new IdBitmap()).add(docId);
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes a document; returns it, or null when it was not indexed. */
+    public SearchDocument remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            return removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Snapshot of every indexed document. */
+    public List<SearchDocument> documents() {
+        lock.readLock().lock();
+        try {
+            return List.copyOf(documents.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchResult search(SearchQuery query) {
+        return collect(query, MAX_TAG_FACETS).toResult(query);
+    }
+
+    /** Scans this index for {@code query}, keeping the best {@code offset + limit} hits. */
+    TopHits collect(SearchQuery query, int tagFacetLimit) {
+        lock.readLock().lock();
+        try {
+            List<TokenMatch> tokens = matchKeyword(query);
+            Set<Long> matched = tokens != null ? intersect(tokens) : null;
+
+            String category = SearchTokenizer.normalize(query.getCategory());
+            Set<Long> inCategory = category != null ? categories.getOrDefault(category, Set.of()) : null;
+
+            Collection<Long> candidates;
+            if (matched != null) {
+                candidates = matched;
+            } else if (inCategory != null) {
+                candidates = inCategory;
+            } else {
+                candidates = documents.keySet();
+            }
+
+            boolean scored = query.getSort() == SearchSort.RELEVANCE && tokens != null;
+            Map<String, Double> idfs = new HashMap<>();
+            Comparator<SearchHit> order = SearchHit.order(query.getSort());
+            SearchHit after = query.getAfter() != null ? SearchHit.probe(query.getAfter()) : null;
+            int wanted = query.getOffset() + query.getLimit();
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(Math.max(1, wanted), order.reversed());
+            long total = 0;
+            long following = 0;
+            IdBitmap hitSet = new IdBitmap();
+
+            for (Long id : candidates) {
+                if (matched != null && inCategory != null && !inCategory.contains(id)) continue;
+
+                SearchDocument document = documents.get(id);
+                if (document == null || !document.priceWithin(query.getMinPrice(), query.getMaxPrice())) continue;
+
+                total++;
+                hitSet.add(ordinals.get(id));
+                SearchHit hit = new SearchHit(document, scored ? score(document, tokens, idfs) : 0);
+                if (after != null && order.compare(hit, after) <= 0) continue;
+
+                following++;
+                if (wanted <= 0) continue;
+                if (top.size() < wanted) {
+                    top.offer(hit);
+                } else if (order.compare(hit, top.peek()) < 0) {
+                    top.poll();
+                    top.offer(hit);
+                }
+            }
+
+            List<SearchHit> sorted = new ArrayList<>(top);
+            sorted.sort(order);
+            return new TopHits(sorted, total, following, scored, facetCounts(hitSet, tagFacetLimit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Expands every keyword token to the ids it matches, or returns {@code null} when there is no keyword. */
+    private List<TokenMatch> matchKeyword(SearchQuery query) {
+        List<String> tokens = SearchTokenizer.tokenize(query.getKeyword());
+        if (tokens.isEmpty()) return null;
+
+        long deadline = System.nanoTime() + query.getFuzzyBudget().toNanos();
+        List<TokenMatch> matches = new ArrayList<>();
+        for (String token : tokens) {
+            Set<Long> ids = new HashSet<>();
+            for (Set<Long> termIds : postings.subMap(token, true, token + Character.MAX_VALUE, true).values()) {
+                ids.addAll(termIds);
+            }
+
+            Set<String> similar = Set.of();
+            if (query.isFuzzy() && token.length() >= MIN_FUZZY_TOKEN_LENGTH) {
+                int maxDistance = token.length() >= 6 ? 2 : 1;
+                similar = new HashSet<>(vocabulary.similar(token, maxDistance, MAX_FUZZY_EXPANSIONS, deadline));
+                for (String term : similar) {
+                    ids.addAll(postings.get(term));
+                }
+            }
+            matches.add(new TokenMatch(token, similar, ids));
+        }
+        return matches;
+    }
+
+    /** Ids matching every token, starting from the rarest one. */
+    private static Set<Long> intersect(List<TokenMatch> tokens) {
+        List<TokenMatch> bySize = new ArrayList<>(tokens);
+        bySize.sort(Comparator.comparingInt(t -> t.ids().size()));
+
+        Set<Long> matched = new HashSet<>(bySize.get(0).ids());
+        for (TokenMatch token : bySize.subList(1, bySize.size())) {
+            if (matched.isEmpty()) break;
+            matched.retainAll(token.ids());
+        }
+        return matched;
+    }
+
+    /**
+     * BM25F: per token, the best-scoring document term it matches. Field frequencies are
+     * boosted and length-normalized before saturation, and completions of a prefix or typo
+     * score a little lower than the exact term.
+     */
+    private double score(SearchDocument document, List<TokenMatch> tokens, Map<String, Double> idfs) {
+        FieldStats fieldStats = document.getFieldStats();
+        double score = 0;
+        for (TokenMatch token : tokens) {
+            double best = 0;
+            for (Map.Entry<String, int[]> entry : fieldStats.frequencies().entrySet()) {
+                String term = entry.getKey();
+                if (!token.matches(term)) continue;
+
+                double weight = 0;
+                for (FieldStats.Field field : FieldStats.Field.values()) {
+                    int frequency = entry.getValue()[field.ordinal()];
+                    if (frequency == 0) continue;
+
+                    double averageLength = stats.averageLength(field);
+                    double norm = 1 - field.b + field.b * fieldStats.length(field) / Math.max(1.0, averageLength);
+                    weight += field.boost * frequency / norm;
+                }
+
+                double termScore = idfs.computeIfAbsent(term, stats::idf) * weight / (BM25_K1 + weight);
+                if (!term.equals(token.token())) termScore *= INEXACT_MATCH_FACTOR;
+                best = Math.max(best, termScore);
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    /** Facet counts for the hit set, computed from the facet bitmaps without touching documents. */
+    private Map<String, Map<String, Integer>> facetCounts(IdBitmap hitSet, int tagFacetLimit) {
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("category", countsByValue(categoryFacets, hitSet, Integer.MAX_VALUE));
+        facets.put("tag", countsByValue(tagFacets, hitSet, tagFacetLimit));
+
+        Map<String, Integer> prices = new LinkedHashMap<>();
+        for (Map.Entry<PriceBucket, IdBitmap> entry : priceFacets.entrySet()) {
+            int count = hitSet.isEmpty() ? 0 : entry.getValue().andCardinality(hitSet);
+            if (count > 0) prices.put(entry.getKey().getLabel(), count);
+        }
+        facets.put("price", prices);
+        return facets;
+    }
+
+    private static Map<String, Integer> countsByValue(Map<String, IdBitmap> bitmaps, IdBitmap hitSet, int limit) {
+        if (hitSet.isEmpty()) return Map.of();
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<String, IdBitmap> entry : bitmaps.entrySet()) {
+            int count = entry.getValue().andCardinality(hitSet);
+            if (count > 0) counts.put(entry.getKey(), count);
+        }
+        return topCounts(counts, limit);
+    }
+
+    /** The {@code limit} highest counts, highest first, ties by value. */
+    static Map<String, Integer> topCounts(Map<String, Integer> countsByValue, int limit) {
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>(countsByValue.entrySet());
+        counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : counts.subList(0, Math.min(limit, counts.size()))) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private SearchDocument removeInternal(Long productId) {
+        SearchDocument previous = documents.remove(productId);
+        if (previous == null) return null;
+
+        for (String term : previous.getTerms()) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null && ids.remove(productId) && ids.isEmpty()) {
+                postings.remove(term);
+                vocabulary.remove(term);
+            }
+        }
+        stats.remove(previous);
+        String category = SearchTokenizer.normalize(previous.getCategoryName());
+        if (category != null) {
+            Set<Long> ids = categories.get(category);
+            if (ids != null && ids.remove(productId) && ids.isEmpty()) {
+                categories.remove(category);
+            }
+        }
+
+        int docId = ordinals.remove(productId);
+        freeOrdinals.push(docId);
+        if (previous.getCategoryName() != null) {
+            removeFromFacet(categoryFacets, previous.getCategoryName(), docId);
+        }
+        for (String tag : previous.getTags()) {
+            removeFromFacet(tagFacets, tag, docId);
+        }
+        PriceBucket bucket = PriceBucket.of(previous.getBasePrice());
+        if (bucket != null) {
+            removeFromFacet(priceFacets, bucket, docId);
+        }
+        return previous;
+    }
+
+    private int assignOrdinal(Long productId) {
+        // Without free ordinals, 0 .. size-1 are all taken
+        Integer free = freeOrdinals.poll();
+        int ordinal = free != null ? free : ordinals.size();
+        ordinals.put(productId, ordinal);
+        return ordinal;
+    }
+
+    private static <K> void removeFromFacet(Map<K, IdBitmap> facets, K key, int docId) {
+        IdBitmap bitmap = facets.get(key);
+        if (bitmap == null) return;
+
+        bitmap.remove(docId);
+        if (bitmap.isEmpty()) facets.remove(key);
+    }
+
+    static Comparator<SearchDocument> comparator(SearchSort sort) {
+        Comparator<SearchDocument> byId = Comparator.comparing(SearchDocument::getId);
+        return switch (sort) {
+            case PRICE_ASC -> Comparator.comparing((SearchDocument d) -> ProductCursor.priceKey(d.getBasePrice()))
+                    .thenComparing(byId);
+            case PRICE_DESC -> Comparator.comparing((SearchDocument d) -> ProductCursor.priceKey(d.getBasePrice()),
+                            Comparator.reverseOrder())
+                    .thenComparing(byId.reversed());
+            case NEWEST, RELEVANCE -> Comparator.comparing(SearchDocument::getCreatedAt,
+                            Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                    .thenComparing(byId.reversed());
+        };
+    }
+
+    private record TokenMatch(String token, Set<String> similar, Set<Long> ids) {
+
+        boolean matches(String term) {
+            return term.startsWith(token) || similar.contains(term);
+        }
+    }
+}
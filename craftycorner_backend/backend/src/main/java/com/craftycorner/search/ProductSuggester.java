@@ -0,0 +1,66 @@
+package com.craftycorner.search;
+
+import com.craftycorner.event.TagCreatedEvent;
+import com.craftycorner.model.Tag;
+import com.craftycorner.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typeahead completions over product titles, tag names and category names.
+ * <p>
+ * A completion's weight is the number of ACTIVE products carrying that title, tag or
+ * category, and every known tag gets one extra point so freshly created tags can be
+ * suggested too. Weights are maintained incrementally from the search index's document
+ * changes, so lookups never touch the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductSuggester {
+
+    private final TagRepository tagRepository;
+
+    private final SuggestTrie trie = new SuggestTrie();
+    private final Set<String> knownTags = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadTags() {
+        tagRepository.findAll().stream().map(Tag::getName).forEach(this::addTag);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagCreated(TagCreatedEvent event) {
+        addTag(event.getName());
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        return trie.suggest(prefix, Math.min(limit, SuggestTrie.MAX_RESULTS));
+    }
+
+    /** Moves the weights of {@code previous} over to {@code current}; either may be null. */
+    void onDocumentChanged(SearchDocument previous, SearchDocument current) {
+        if (previous != null) apply(previous, -1);
+        if (current != null) apply(current, 1);
+    }
+
+    private void apply(SearchDocument document, long delta) {
+        trie.adjust(document.getTitle(), delta);
+        trie.adjust(document.getCategoryName(), delta);
+        for (String tag : document.getTags()) {
+            trie.adjust(tag, delta);
+        }
+    }
+
+    private void addTag(String name) {
+        if (name != null && knownTags.add(name)) {
+            trie.adjust(name, 1);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.craftycorner.search;
+
+import com.craftycorner.model.Product;
+import com.craftycorner.model.ProductImage;
+import com.craftycorner.model.Tag;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable, search-ready copy of an ACTIVE product. Holds everything a search hit needs,
+ * so answering a query never goes back to the database.
+ */
+@Getter
+@Builder
+public class SearchDocument {
+
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final Long categoryId;
+    private final String categoryName;
+    private final String vendorName;
+    private final BigDecimal basePrice;
+    private final LocalDateTime createdAt;
+    private final List<String> tags;
+    private final List<String> imageUrls;
+
+    /** Distinct tokens of title, description, tag names, category name and vendor shop name. */
+    private final Set<String> terms;
+
+    /** Per-field term statistics for relevance scoring. */
+    @Builder.Default
+    private final FieldStats fieldStats = FieldStats.EMPTY;
+
+    public static SearchDocument fromEntity(Product product) {
+        List<String> tags = product.getTags() != null
+                ? product.getTags().stream().map(Tag::getName).filter(Objects::nonNull).toList()
+                : List.of();
+
+        List<String> images = product.getImages() != null
+                ? product.getImages().stream()
+                        .map(ProductImage::getImageUrl)
+                        .filter(Objects::nonNull)
+                        .toList()
+                : List.of();
+
+        String categoryName = product.getCategory() != null ? product.getCategory().getName() : null;
+        String vendorName = product.getVendor() != null ? product.getVendor().getShopName() : null;
+
+        Set<String> terms = new HashSet<>();
+        terms.addAll(SearchTokenizer.tokenize(product.getTitle()));
+        terms.addAll(SearchTokenizer.tokenize(product.getDescription()));
+        tags.forEach(tag -> terms.addAll(SearchTokenizer.tokenize(tag)));
+        terms.addAll(SearchTokenizer.tokenize(categoryName));
+        terms.addAll(SearchTokenizer.tokenize(vendorName));
+
+        return SearchDocument.builder()
+                .id(product.getId())
+                .title(product.getTitle())
+                .description(product.getDescription())
+                .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
+                .categoryName(categoryName)
+                .vendorName(vendorName)
+                .basePrice(product.getBasePrice())
+                .createdAt(product.getCreatedAt())
+                .tags(tags)
+                .imageUrls(images)
+                .terms(Set.copyOf(terms))
+                .fieldStats(FieldStats.of(product.getTitle(), product.getDescription(), tags))
+                .build();
+    }
+
+    boolean priceWithin(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) return true;
+        if (basePrice == null) return false;
+        return (minPrice == null || basePrice.compareTo(minPrice) >= 0)
+                && (maxPrice == null || basePrice.compareTo(maxPrice) <= 0);
+    }
+}
@@ -0,0 +1,36 @@
+package com.craftycorner.search;
+
+import com.craftycorner.model.ProductStatus;
+import com.craftycorner.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class SearchDocumentLoader {
+
+    private final ProductRepository productRepository;
+
+    /**
+     * Loads search documents for the given ids in one query. Products that no longer exist
+     * or are not ACTIVE are simply missing from the result.
+     * <p>
+     * Runs in its own transaction because it is also called after the writing transaction
+     * has already committed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public List<SearchDocument> load(Collection<Long> productIds) {
+        if (productIds.isEmpty()) return List.of();
+
+        return productRepository.findAllWithDetailsByIdIn(productIds)
+                .stream()
+                .filter(p -> p.getStatus() == ProductStatus.ACTIVE)
+                .map(SearchDocument::fromEntity)
+                .toList();
+    }
+}
@@ -0,0 +1,25 @@
+package com.craftycorner.search;
+
+import java.util.Comparator;
+
+/** A matching document with its relevance score (zero unless the query sorts by relevance). */
+record SearchHit(SearchDocument document, double score) {
+
+    /** Relevance orders by score, highest first; the other sorts by document fields only. */
+    static Comparator<SearchHit> order(SearchSort sort) {
+        if (sort == SearchSort.RELEVANCE) {
+            return Comparator.comparingDouble(SearchHit::score).reversed()
+                    .thenComparing(hit -> hit.document().getId(), Comparator.reverseOrder());
+        }
+        return Comparator.comparing(SearchHit::document, ProductSearchIndex.comparator(sort));
+    }
+
+    static SearchHit probe(ProductCursor cursor) {
+        return new SearchHit(cursor.asProbe(), cursor.getScore() != null ? cursor.getScore() : 0);
+    }
+
+    ProductCursor cursor(SearchSort sort, boolean scored) {
+        return new ProductCursor(sort, document.getId(), ProductCursor.priceKey(document.getBasePrice()), document.getCreatedAt(),
+                scored ? score : null);
+    }
+}
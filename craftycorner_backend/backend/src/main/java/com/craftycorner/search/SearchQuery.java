@@ -0,0 +1,33 @@
+package com.craftycorner.search;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Getter
+@Builder
+public class SearchQuery {
+
+    private final String keyword;
+    private final String category;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+
+    @Builder.Default
+    private final SearchSort sort = SearchSort.NEWEST;
+
+    private final int offset;
+    private final int limit;
+
+    /** Keyset position; when set, only hits ordered after this cursor are returned. */
+    private final ProductCursor after;
+
+    /** Also match vocabulary terms within a small edit distance of each keyword token. */
+    private final boolean fuzzy;
+
+    /** Time allowed for finding fuzzy expansions across all tokens. */
+    @Builder.Default
+    private final Duration fuzzyBudget = Duration.ofMillis(20);
+}
@@ -0,0 +1,24 @@
+package com.craftycorner.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class SearchResult {
+
+    private final List<SearchDocument> hits;
+    private final long total;
+
+    /** Whether more hits follow the returned page. */
+    private final boolean hasMore;
+
+    /** Facet name ("category", "tag", "price") to value to hit count. */
+    private final Map<String, Map<String, Integer>> facets;
+
+    /** Position of the last hit, to continue from; null when nothing follows. */
+    private final ProductCursor next;
+}
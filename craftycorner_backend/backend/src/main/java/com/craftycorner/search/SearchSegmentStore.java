@@ -0,0 +1,88 @@
+package com.craftycorner.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the newest {@link IndexSegment} in a directory. A new segment is written to a
+ * temporary file and atomically renamed into place, then older segments are deleted, so a
+ * crash mid-write always leaves the previous segment readable.
+ */
+@Slf4j
+@Component
+public class SearchSegmentStore {
+
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+
+    public SearchSegmentStore(@Value("${app.search.segment.dir:search-index}") String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    /** The newest readable segment, or empty when there is none. */
+    public Optional<IndexSegment> openLatest() {
+        for (Path file : segments()) {
+            try {
+                return Optional.of(IndexSegment.open(file));
+            } catch (IOException e) {
+                log.warn("Skipping unreadable search index segment {}", file, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void write(List<SearchDocument> documents, LocalDateTime highWaterMark) {
+        try {
+            Files.createDirectories(directory);
+            String name = "segment-" + highWaterMark.toEpochSecond(ZoneOffset.UTC) + "-" + System.nanoTime();
+            Path temporary = directory.resolve(name + ".tmp");
+            Path target = directory.resolve(name + SUFFIX);
+
+            IndexSegment.write(temporary, documents, highWaterMark);
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+
+            for (Path old : segments()) {
+                if (!old.equals(target)) Files.deleteIfExists(old);
+            }
+            log.info("Wrote search index segment {} with {} products", target.getFileName(), documents.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write search index segment", e);
+        }
+    }
+
+    /** Segment files, newest first. */
+    private List<Path> segments() {
+        if (!Files.isDirectory(directory)) return List.of();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(this::lastModified).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.craftycorner.search;
+
+public enum SearchSort {
+    NEWEST("newest"),
+    PRICE_ASC("priceasc"),
+    PRICE_DESC("pricedesc"),
+    /** BM25F score of the keyword; served by the search index only. */
+    RELEVANCE("relevance");
+
+    private final String param;
+
+    SearchSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    /** Unknown or missing values fall back to {@link #NEWEST}, like the native query. */
+    public static SearchSort fromParam(String value) {
+        if (value != null) {
+            for (SearchSort sort : values()) {
+                if (sort.param.equalsIgnoreCase(value.trim())) return sort;
+            }
+        }
+        return NEWEST;
+    }
+}
@@ -0,0 +1,30 @@
+package com.craftycorner.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/** Splits free text into lower-cased letter/digit runs, used for both indexing and queries. */
+public final class SearchTokenizer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+
+        List<String> tokens = new ArrayList<>();
+        for (String part : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!part.isEmpty()) tokens.add(part);
+        }
+        return tokens;
+    }
+
+    public static String normalize(String value) {
+        if (value == null || value.isBlank()) return null;
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,159 @@
+package com.craftycorner.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Product search index partitioned by category.
+ * <p>
+ * A query filtered to one category is answered by that category's shard alone. Any other
+ * query runs on every shard in parallel on a fork-join pool, each shard keeping its own
+ * top {@code offset + limit} hits, and the partial results are merged into one page.
+ * Shards share one {@link CorpusStats}, so relevance scores from different shards compare
+ * directly. Small catalogs are scanned shard by shard on the calling thread, where forking
+ * would cost more than it saves.
+ * <p>
+ * Writes take the write lock and searches the read lock, so a product moving to another
+ * category is never seen in both shards, or in neither, by a search.
+ */
+public class ShardedSearchIndex {
+
+    private static final String UNCATEGORIZED = "";
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    private final ForkJoinPool pool;
+    private final CorpusStats stats = new CorpusStats();
+    private final Map<String, ProductSearchIndex> shards = new ConcurrentHashMap<>();
+    private final Map<Long, String> shardByProduct = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ShardedSearchIndex(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Adds or replaces a document, moving it between shards if its category changed. */
+    public SearchDocument index(SearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            String shard = shardKey(document.getCategoryName());
+            String previousShard = shardByProduct.put(document.getId(), shard);
+
+            SearchDocument moved = previousShard != null && !previousShard.equals(shard)
+                    ? shards.get(previousShard).remove(document.getId())
+                    : null;
+            SearchDocument replaced = shards.computeIfAbsent(shard, s -> new ProductSearchIndex(stats)).index(document);
+            return moved != null ? moved : replaced;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SearchDocument remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            String shard = shardByProduct.remove(productId);
+            return shard != null ? shards.get(shard).remove(productId) : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return shardByProduct.size();
+    }
+
+    /** Snapshot of every indexed document, shard by shard. */
+    public List<SearchDocument> documents() {
+        lock.readLock().lock();
+        try {
+            List<SearchDocument> documents = new ArrayList<>(size());
+            for (ProductSearchIndex shard : shards.values()) {
+                documents.addAll(shard.documents());
+            }
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchResult search(SearchQuery query) {
+        lock.readLock().lock();
+        try {
+            return searchShards(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SearchResult searchShards(SearchQuery query) {
+        String category = SearchTokenizer.normalize(query.getCategory());
+        if (category != null) {
+            ProductSearchIndex shard = shards.get(category);
+            return shard != null ? shard.search(query) : merge(query, List.of()).toResult(query);
+        }
+
+        List<ProductSearchIndex> targets = List.copyOf(shards.values());
+        List<TopHits> partials;
+        if (targets.size() > 1 && size() >= PARALLEL_THRESHOLD) {
+            List<ForkJoinTask<TopHits>> tasks = targets.stream()
+                    .map(shard -> pool.submit(() -> shard.collect(query, Integer.MAX_VALUE)))
+                    .toList();
+            partials = tasks.stream().map(ForkJoinTask::join).toList();
+        } else {
+            partials = targets.stream().map(shard -> shard.collect(query, Integer.MAX_VALUE)).toList();
+        }
+        return merge(query, partials).toResult(query);
+    }
+
+    /** Combines the shards' top hits, counts and facets as if one index had been scanned. */
+    private static TopHits merge(SearchQuery query, List<TopHits> partials) {
+        Comparator<SearchHit> order = SearchHit.order(query.getSort());
+        List<SearchHit> hits = new ArrayList<>();
+        long total = 0;
+        long following = 0;
+        boolean scored = false;
+        Map<String, Integer> categories = new HashMap<>();
+        Map<String, Integer> tags = new HashMap<>();
+        Map<String, Integer> prices = new HashMap<>();
+
+        for (TopHits partial : partials) {
+            hits.addAll(partial.hits());
+            total += partial.total();
+            following += partial.following();
+            scored |= partial.scored();
+            partial.facets().get("category").forEach((value, count) -> categories.merge(value, count, Integer::sum));
+            partial.facets().get("tag").forEach((value, count) -> tags.merge(value, count, Integer::sum));
+            partial.facets().get("price").forEach((value, count) -> prices.merge(value, count, Integer::sum));
+        }
+
+        // At most offset + limit hits per shard, so this sorts a few pages, not the hit list
+        hits.sort(order);
+        int wanted = query.getOffset() + query.getLimit();
+        List<SearchHit> top = hits.size() > wanted ? hits.subList(0, wanted) : hits;
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("category", ProductSearchIndex.topCounts(categories, Integer.MAX_VALUE));
+        facets.put("tag", ProductSearchIndex.topCounts(tags, ProductSearchIndex.MAX_TAG_FACETS));
+        Map<String, Integer> priceFacets = new LinkedHashMap<>();
+        for (PriceBucket bucket : PriceBucket.values()) {
+            Integer count = prices.get(bucket.getLabel());
+            if (count != null) priceFacets.put(bucket.getLabel(), count);
+        }
+        facets.put("price", priceFacets);
+
+        return new TopHits(top, total, following, scored, facets);
+    }
+
+    private static String shardKey(String categoryName) {
+        String category = SearchTokenizer.normalize(categoryName);
+        return category != null ? category : UNCATEGORIZED;
+    }
+}
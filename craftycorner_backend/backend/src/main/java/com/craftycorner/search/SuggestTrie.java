@@ -0,0 +1,153 @@
+package com.craftycorner.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Weighted completion trie for typeahead.
+ * <p>
+ * Edges are path-compressed (radix trie) so long product titles do not cost one node per
+ * character. Every node caches the top {@link #MAX_RESULTS} completions of its subtree;
+ * a weight change only invalidates the caches on that key's path, and they are rebuilt
+ * lazily from the children's caches on the next lookup.
+ */
+public class SuggestTrie {
+
+    public static final int MAX_RESULTS = 10;
+
+    private static final Comparator<Entry> BY_WEIGHT = Comparator.comparingLong(Entry::weight).reversed()
+            .thenComparing(Entry::key);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+
+    /** Adds {@code delta} to the weight of {@code text}; entries that drop to zero disappear. */
+    public void adjust(String text, long delta) {
+        String key = normalize(text);
+        if (key == null || delta == 0) return;
+
+        lock.writeLock().lock();
+        try {
+            Node node = insertPath(key);
+            long weight = (node.entry != null ? node.entry.weight() : 0) + delta;
+            node.entry = weight > 0 ? new Entry(key, text.trim(), weight) : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key == null || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) return List.of();
+
+            List<Entry> top = node.top();
+            return top.subList(0, Math.min(limit, top.size())).stream().map(Entry::text).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Walks (creating and splitting edges as needed) to the node for {@code key}, invalidating caches on the way. */
+    private Node insertPath(String key) {
+        Node node = root;
+        String rest = key;
+        node.top = null;
+
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                child = new Node(rest);
+                node.children.put(rest.charAt(0), child);
+                return child;
+            }
+
+            int common = commonPrefix(child.label, rest);
+            if (common < child.label.length()) {
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children.put(child.label.charAt(0), child);
+                node.children.put(split.label.charAt(0), split);
+                child = split;
+            }
+
+            child.top = null;
+            node = child;
+            rest = rest.substring(common);
+        }
+        return node;
+    }
+
+    /** Node whose subtree holds every key starting with {@code prefix}, or null. */
+    private Node find(String prefix) {
+        Node node = root;
+        String rest = prefix;
+
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null) return null;
+
+            int common = commonPrefix(child.label, rest);
+            if (common == rest.length()) return child;
+            if (common < child.label.length()) return null;
+
+            node = child;
+            rest = rest.substring(common);
+        }
+        return node;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+
+    static String normalize(String text) {
+        if (text == null || text.isBlank()) return null;
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(String key, String text, long weight) {
+    }
+
+    private static final class Node {
+
+        String label;
+        final Map<Character, Node> children = new HashMap<>();
+        Entry entry;
+
+        /** Cached best completions of this subtree; null when a write below made it stale. */
+        volatile List<Entry> top;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        List<Entry> top() {
+            List<Entry> cached = top;
+            if (cached != null) return cached;
+
+            List<Entry> candidates = new ArrayList<>();
+            if (entry != null) candidates.add(entry);
+            for (Node child : children.values()) {
+                candidates.addAll(child.top());
+            }
+            candidates.sort(BY_WEIGHT);
+
+            cached = List.copyOf(candidates.subList(0, Math.min(MAX_RESULTS, candidates.size())));
+            top = cached;
+            return cached;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.craftycorner.search;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raw outcome of scanning one index: the best {@code offset + limit} hits in order, how
+ * many hits matched and how many of those follow the query's cursor. Shards return these
+ * so they can be merged before the requested page is cut.
+ */
+record TopHits(
+        List<SearchHit> hits,
+        long total,
+        long following,
+        boolean scored,
+        Map<String, Map<String, Integer>> facets
+) {
+
+    SearchResult toResult(SearchQuery query) {
+        List<SearchHit> page = query.getOffset() < hits.size()
+                ? hits.subList(query.getOffset(), hits.size())
+                : List.of();
+
+        boolean hasMore = following > query.getOffset() + query.getLimit();
+        ProductCursor next = hasMore && !page.isEmpty()
+                ? page.get(page.size() - 1).cursor(query.getSort(), scored)
+                : null;
+
+        return new SearchResult(page.stream().map(SearchHit::document).toList(), total, hasMore, facets, next);
+    }
+}
@@ -0,0 +1,113 @@
+package com.craftycorner.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over the search vocabulary, used to find terms within a small edit distance
+ * of a (possibly misspelled) query token.
+ * <p>
+ * Candidates are gathered from the trigram postings, then cut down with the q-gram lemma
+ * (each edit destroys at most three trigrams) and a length check, so the bounded edit
+ * distance is only computed for a handful of terms. Not thread-safe;
+ * {@link ProductSearchIndex} guards it with its own lock.
+ */
+class TrigramIndex {
+
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+
+    void add(String term) {
+        for (String gram : grams(term)) {
+            termsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+        }
+    }
+
+    void remove(String term) {
+        for (String gram : grams(term)) {
+            Set<String> terms = termsByGram.get(gram);
+            if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                termsByGram.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Terms within {@code maxDistance} edits of {@code token}, closest first, at most
+     * {@code limit} of them. Verification stops once {@code deadlineNanos} has passed.
+     */
+    List<String> similar(String token, int maxDistance, int limit, long deadlineNanos) {
+        Set<String> queryGrams = grams(token);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (String term : termsByGram.getOrDefault(gram, Set.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+
+        int minShared = Math.max(1, queryGrams.size() - 3 * maxDistance);
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            if (System.nanoTime() > deadlineNanos) break;
+
+            String term = entry.getKey();
+            if (entry.getValue() < minShared || Math.abs(term.length() - token.length()) > maxDistance) continue;
+
+            int distance = distance(token, term, maxDistance);
+            if (distance <= maxDistance) matches.add(new Match(term, distance));
+        }
+
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::term));
+        return matches.stream().limit(limit).map(Match::term).toList();
+    }
+
+    /** Padded trigrams, so the first and last characters weigh as much as the middle ones. */
+    static Set<String> grams(String term) {
+        String padded = "$$" + term + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions), giving
+     * up with {@code max + 1} as soon as every cell of a row exceeds {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        int[] beforePrevious = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) return max + 1;
+
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private record Match(String term, int distance) {
+    }
+}
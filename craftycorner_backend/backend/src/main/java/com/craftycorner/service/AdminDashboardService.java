@@ -0,0 +1,89 @@
+package com.craftycorner.service;
+
+import com.craftycorner.cache.SingleFlight;
+import com.craftycorner.dto.admin.DashboardSummaryDTO;
+import com.craftycorner.model.OrderStatus;
+import com.craftycorner.model.ProductStatus;
+import com.craftycorner.repository.OrderRepository;
+import com.craftycorner.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin home page figures from GROUP BY counts and top-N queries, instead of loading whole
+ * tables to count them. A summary is reused for {@code app.admin.dashboard.cache-ttl-ms}, and
+ * concurrent refreshes share one set of queries.
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminDashboardService {
+
+    private static final int RECENT_LIMIT = 5;
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final ProductReadService productReadService;
+    private final SingleFlight<String, DashboardSummaryDTO> refreshes = new SingleFlight<>();
+
+    @Value("${app.admin.dashboard.cache-ttl-ms:5000}")
+    private long cacheTtlMs;
+
+    private volatile Snapshot snapshot;
+
+    public DashboardSummaryDTO getSummary() {
+        Snapshot current = snapshot;
+        if (current != null && current.isFresh(cacheTtlMs)) return current.summary();
+
+        return refreshes.load("summary", () -> {
+            Snapshot latest = snapshot;
+            if (latest != null && latest.isFresh(cacheTtlMs)) return latest.summary();
+
+            DashboardSummaryDTO summary = load();
+            snapshot = new Snapshot(summary, System.nanoTime());
+            return summary;
+        });
+    }
+
+    private DashboardSummaryDTO load() {
+        Map<ProductStatus, Long> productsByStatus = counts(ProductStatus.class, productRepository.countByStatus());
+        Map<OrderStatus, Long> ordersByStatus = counts(OrderStatus.class, orderRepository.countByStatus());
+
+        return DashboardSummaryDTO.builder()
+                .totalProducts(sum(productsByStatus))
+                .pendingProducts(productsByStatus.get(ProductStatus.DRAFT) + productsByStatus.get(ProductStatus.INACTIVE))
+                .productsByStatus(productsByStatus)
+                .totalOrders(sum(ordersByStatus))
+                .ordersByStatus(ordersByStatus)
+                .recentProducts(productReadService.getRecent(RECENT_LIMIT))
+                .recentOrders(orderRepository.findRecent(PageRequest.of(0, RECENT_LIMIT)))
+                .generatedAt(Instant.now())
+                .build();
+    }
+
+    /** (status, count) pairs as a map with every status present, zero when absent. */
+    private static <S extends Enum<S>> Map<S, Long> counts(Class<S> type, List<Object[]> pairs) {
+        Map<S, Long> counts = new EnumMap<>(type);
+        for (S status : type.getEnumConstants()) counts.put(status, 0L);
+        for (Object[] pair : pairs) {
+            if (pair[0] != null) counts.put(type.cast(pair[0]), (Long) pair[1]);
+        }
+        return counts;
+    }
+
+    private static long sum(Map<?, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private record Snapshot(DashboardSummaryDTO summary, long loadedAt) {
+        boolean isFresh(long ttlMs) {
+            return System.nanoTime() - loadedAt < ttlMs * 1_000_000;
+        }
+    }
+}
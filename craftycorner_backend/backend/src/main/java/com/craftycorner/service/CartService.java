@@ -1,14 +1,30 @@
 package com.craftycorner.service;
 
+import com.craftycorner.cache.WriteBehindCartStore;
 import com.craftycorner.dto.cart.CartDTO;
 import com.craftycorner.dto.cart.CartItemDTO;
+import com.craftycorner.dto.cart.CartLineView;
+import com.craftycorner.dto.cart.CartOperation;
+import com.craftycorner.dto.cart.CartOperationType;
+import com.craftycorner.dto.cart.CartVariantView;
 import com.craftycorner.model.*;
 import com.craftycorner.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,73 +35,210 @@ public class CartService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final UserRepository userRepository;
-    private final ProductRepository productRepository;
+    private final ProductVariantResolver productVariantResolver;
+    private final CartIdLookup cartIdLookup;
+    private final PooledIdAllocator pooledIdAllocator;
+    private final CartItemBatchWriter cartItemBatchWriter;
     private final ProductVariantRepository productVariantRepository;
+    private final WriteBehindCartStore cartStore;
+
+    @Value("${app.cart.batch.max-operations:100}")
+    private int maxBatchOperations;
 
     public CartDTO getCartByEmail(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found: " + email));
-        return getCart(user.getId());
+        Long cartId = cartIdLookup.getOrCreate(email);
+        return fromStore(cartId, cart -> { }).orElseGet(() -> loadCartDTO(cartId));
     }
 
+    /**
+     * Adds to the cart's line for the variant, or creates it with an upsert, so concurrent adds
+     * (double clicks, several tabs) all count and never create a second line. An item id is
+     * only taken for a new line. The cart id comes from the lookup, which is the first thing
+     * this transaction does and needs no query once known.
+     */
     public CartDTO addToCartByEmail(String email, Long variantId, int quantity) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        Long cartId = cartIdLookup.getOrCreate(email);
+        ProductVariant variant = productVariantResolver.resolve(variantId);
+
+        if (cartStore.isEnabled()) {
+            Map<Long, Long> itemIds = newItemIds(cartId, List.of(variant.getId()));
+            Optional<CartDTO> stored = fromStore(cartId, cart ->
+                    cart.add(newItemId(itemIds, variant.getId()), variant.getId(), quantity, variant.getPrice()));
+            if (stored.isPresent()) return stored.get();
+        }
 
-        Cart cart = cartRepository.findByUser(user)
-                .orElseGet(() -> cartRepository.save(Cart.builder().user(user).build()));
+        if (cartItemRepository.addQuantity(cartId, variant.getId(), quantity) == 0) {
+            cartItemRepository.upsertQuantity(
+                    pooledIdAllocator.next(IdGenerators.CART_ITEMS),
+                    cartId,
+                    variant.getId(),
+                    quantity,
+                    variant.getPrice()
+            );
+        }
 
-        ProductVariant variant = findVariantSafely(variantId);
+        return loadCartDTO(cartId);
+    }
 
-        CartItem cartItem = cartItemRepository.findByCartAndProductVariant(cart, variant)
-                .orElseGet(() -> CartItem.builder()
-                        .cart(cart)
-                        .productVariant(variant)
-                        .quantity(0)
-                        .build());
+    /**
+     * Applies {@code operations} in one transaction and returns the resulting cart once.
+     * Consecutive operations of the same type are written together as one batch, so a
+     * restored cart of any size costs a variant lookup and a single batched upsert. The
+     * whole request is validated first, including that every updated or removed line is in
+     * the caller's cart, and nothing is applied if any check fails.
+     */
+    public CartDTO applyBatchByEmail(String email, List<CartOperation> operations) {
+        validate(operations);
+        Long cartId = cartIdLookup.getOrCreate(email);
+
+        Map<Long, ProductVariant> variants = productVariantResolver.resolveAll(operations.stream()
+                .filter(op -> op.getType() == CartOperationType.ADD)
+                .map(CartOperation::getVariantId)
+                .toList());
+
+        if (cartStore.isEnabled()) {
+            Optional<CartDTO> stored = fromStore(cartId, storeEdits(cartId, operations, variants));
+            if (stored.isPresent()) return stored.get();
+        }
 
-        cartItem.setQuantity(cartItem.getQuantity() + quantity);
-        cartItemRepository.save(cartItem);
+        requireLines(operations, cartItemBatchWriter.findExistingItemIds(cartId, operations.stream()
+                .filter(op -> op.getType() != CartOperationType.ADD)
+                .map(CartOperation::getItemId)
+                .distinct()
+                .toList())::contains);
+
+        int from = 0;
+        while (from < operations.size()) {
+            CartOperationType type = operations.get(from).getType();
+            int to = from + 1;
+            while (to < operations.size() && operations.get(to).getType() == type) to++;
+            List<CartOperation> run = operations.subList(from, to);
+
+            switch (type) {
+                case ADD -> {
+                    Map<Long, CartItemBatchWriter.Addition> additions = new LinkedHashMap<>();
+                    for (CartOperation op : run) {
+                        ProductVariant variant = variants.get(op.getVariantId());
+                        additions.merge(variant.getId(),
+                                new CartItemBatchWriter.Addition(variant.getId(), op.getQuantity(), variant.getPrice()),
+                                (a, b) -> new CartItemBatchWriter.Addition(a.variantId(), a.quantity() + b.quantity(), a.unitPrice()));
+                    }
+                    cartItemBatchWriter.addQuantities(cartId, additions.values());
+                }
+                case UPDATE -> {
+                    Map<Long, Integer> quantities = new LinkedHashMap<>();
+                    for (CartOperation op : run) quantities.put(op.getItemId(), op.getQuantity());
+                    cartItemBatchWriter.setQuantities(cartId, quantities);
+                }
+                case REMOVE -> cartItemBatchWriter.delete(cartId,
+                        run.stream().map(CartOperation::getItemId).distinct().toList());
+            }
+            from = to;
+        }
 
-        return mapToDTO(cart);
+        return loadCartDTO(cartId);
     }
 
-    public CartDTO removeFromCartByEmail(String email, Long cartItemId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found: " + email));
-        return removeFromCart(user.getId(), cartItemId);
+    /** The batch as store edits. */
+    private Consumer<WriteBehindCartStore.Editor> storeEdits(Long cartId, List<CartOperation> operations,
+                                                             Map<Long, ProductVariant> variants) {
+        Map<Long, Long> itemIds = newItemIds(cartId, operations.stream()
+                .filter(op -> op.getType() == CartOperationType.ADD)
+                .map(op -> variants.get(op.getVariantId()).getId())
+                .toList());
+
+        return cart -> {
+            requireLines(operations, cart::hasLine);
+            for (CartOperation op : operations) {
+                switch (op.getType()) {
+                    case ADD -> {
+                        ProductVariant variant = variants.get(op.getVariantId());
+                        cart.add(newItemId(itemIds, variant.getId()), variant.getId(), op.getQuantity(), variant.getPrice());
+                    }
+                    case UPDATE -> cart.setQuantity(op.getItemId(), op.getQuantity());
+                    case REMOVE -> cart.remove(op.getItemId());
+                }
+            }
+        };
     }
 
-    public void clearCartByEmail(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found: " + email));
-        clearCart(user.getId());
+    /**
+     * Item ids for the variants the stored cart has no line for yet, taken before the cart is
+     * locked; variants it already has a line for get none.
+     */
+    private Map<Long, Long> newItemIds(Long cartId, List<Long> variantIds) {
+        Set<Long> inCart = cartStore.read(cartId)
+                .map(cart -> cart.lines().stream().map(CartItemBatchWriter.Line::variantId).collect(Collectors.toSet()))
+                .orElse(null);
+        Map<Long, Long> itemIds = new HashMap<>();
+        if (inCart == null) return itemIds;
+
+        for (Long variantId : variantIds) {
+            if (!inCart.contains(variantId)) {
+                itemIds.computeIfAbsent(variantId, id -> pooledIdAllocator.next(IdGenerators.CART_ITEMS));
+            }
+        }
+        return itemIds;
     }
 
-    private CartDTO getCart(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Cart cart = cartRepository.findByUser(user)
-                .orElseGet(() -> cartRepository.save(Cart.builder().user(user).build()));
+    /**
+     * The id taken for the variant's new line. A line removed since the ids were taken gets
+     * one here, under the cart's lock, which only reaches the database once per id block.
+     */
+    private LongSupplier newItemId(Map<Long, Long> itemIds, Long variantId) {
+        return () -> itemIds.computeIfAbsent(variantId, id -> pooledIdAllocator.next(IdGenerators.CART_ITEMS));
+    }
 
-        return mapToDTO(cart);
+    /** Checked before the first edit, so a batch naming another cart's line changes nothing. */
+    private static void requireLines(List<CartOperation> operations, Predicate<Long> inCart) {
+        for (CartOperation op : operations) {
+            if (op.getType() != CartOperationType.ADD && !inCart.test(op.getItemId())) {
+                throw new RuntimeException("Cart item not found: " + op.getItemId());
+            }
+        }
     }
 
-    private CartDTO removeFromCart(Long userId, Long cartItemId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private void validate(List<CartOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new RuntimeException("At least one cart operation is required");
+        }
+        if (operations.size() > maxBatchOperations) {
+            throw new RuntimeException("At most " + maxBatchOperations + " cart operations can be applied at once");
+        }
+        for (CartOperation op : operations) {
+            if (op.getType() == null) {
+                throw new RuntimeException("Cart operation type is required");
+            }
+            boolean valid = switch (op.getType()) {
+                case ADD -> op.getVariantId() != null && op.getQuantity() != null && op.getQuantity() > 0;
+                case UPDATE -> op.getItemId() != null && op.getQuantity() != null && op.getQuantity() > 0;
+                case REMOVE -> op.getItemId() != null;
+            };
+            if (!valid) {
+                throw new RuntimeException("Invalid " + op.getType() + " operation: " + op);
+            }
+        }
+    }
 
-        Cart cart = cartRepository.findByUser(user)
-                .orElseThrow(() -> new RuntimeException("Cart not found"));
+    /** Removes the line from the caller's cart; ids of other carts' lines are ignored. */
+    public CartDTO removeFromCartByEmail(String email, Long cartItemId) {
+        Long cartId = cartIdLookup.getOrCreate(email);
+        Optional<CartDTO> stored = fromStore(cartId, cart -> cart.remove(cartItemId));
+        if (stored.isPresent()) return stored.get();
 
-        cartItemRepository.deleteById(cartItemId);
-        cartRepository.flush();
+        cartItemBatchWriter.delete(cartId, List.of(cartItemId));
+        return loadCartDTO(cartId);
+    }
 
-        Cart updatedCart = cartRepository.findById(cart.getId())
-                .orElseThrow(() -> new RuntimeException("Cart not found after deletion"));
+    public void clearCartByEmail(String email) {
+        if (cartStore.isEnabled()
+                && fromStore(cartIdLookup.getOrCreate(email), WriteBehindCartStore.Editor::clear).isPresent()) {
+            return;
+        }
 
-        return mapToDTO(updatedCart);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found: " + email));
+        clearCart(user.getId());
     }
 
     private void clearCart(Long userId) {
@@ -96,72 +249,97 @@ public class CartService {
         cartItemRepository.deleteAll(cart.getItems());
     }
 
-    private ProductVariant findVariantSafely(Long idFromFrontend) {
-        ProductVariant variant = productVariantRepository.findById(idFromFrontend).orElse(null);
-        if (variant != null) return variant;
-
-        Product product = productRepository.findById(idFromFrontend)
-                .orElseThrow(() -> new RuntimeException("No variant or product found for ID: " + idFromFrontend));
+    /**
+     * The cart after {@code edits} when carts are kept in the write-behind store; empty when
+     * they are not, or while this cart is being checked out, and the database has to be used.
+     */
+    private Optional<CartDTO> fromStore(Long cartId, Consumer<WriteBehindCartStore.Editor> edits) {
+        if (!cartStore.isEnabled()) return Optional.empty();
+        return cartStore.apply(cartId, edits).map(this::mapToDTO);
+    }
 
-        List<ProductVariant> variants = productVariantRepository.findAll().stream()
-                .filter(v -> v.getProduct().getId().equals(product.getId()))
-                .collect(Collectors.toList());
+    /**
+     * The cart as stored in the database, read with one query however many lines it has;
+     * mapping entities instead would load each line's variant, product and images.
+     */
+    private CartDTO loadCartDTO(Long cartId) {
+        List<CartLineView> rows = cartRepository.findLineViews(cartId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Cart not found");
+        }
 
-        if (variants.isEmpty()) {
-            ProductVariant defaultVariant = ProductVariant.builder()
-                    .product(product)
-                    .variantName("Default")
-                    .variantValue("Standard")
-                    .price(product.getBasePrice())
-                    .stockQuantity(100)
-                    .build();
-            return productVariantRepository.save(defaultVariant);
+        List<CartItemDTO> items = new ArrayList<>();
+        for (CartLineView row : rows) {
+            if (row.getItemId() == null) continue;
+
+            items.add(toItemDTO(row.getItemId(), row.getQuantity(), new CartVariantView(
+                    row.getVariantId(),
+                    row.getProductTitle(),
+                    row.getVariantName(),
+                    row.getVariantValue(),
+                    row.getPrice(),
+                    row.getImageUrl()
+            )));
         }
 
-        return variants.get(0);
+        return toCartDTO(cartId, rows.get(0).getUserId(), items);
     }
 
-    private CartDTO mapToDTO(Cart cart) {
-        List<CartItemDTO> items = cart.getItems().stream()
-                .map(item -> {
-                    ProductVariant variant = item.getProductVariant();
-                    Product product = variant.getProduct();
+    private CartDTO mapToDTO(WriteBehindCartStore.Snapshot cart) {
+        Map<Long, CartVariantView> views = productVariantRepository.findCartViewsByIdIn(
+                        cart.lines().stream().map(CartItemBatchWriter.Line::variantId).toList())
+                .stream()
+                .collect(Collectors.toMap(CartVariantView::getVariantId, Function.identity()));
 
-                    String imageUrl = null;
-                    if (product.getImages() != null && !product.getImages().isEmpty()) {
-                        imageUrl = product.getImages().iterator().next().getImageUrl();
-                    }
+        List<CartItemDTO> items = new ArrayList<>();
+        for (CartItemBatchWriter.Line line : cart.lines()) {
+            CartVariantView variant = views.get(line.variantId());
+            if (variant == null) continue;
 
-                    return CartItemDTO.builder()
-                            .id(item.getId())
-                            .productVariantId(variant.getId())
-                            .productName(product.getTitle())
-                            .variantDetails(variant.getVariantName() + " : " + variant.getVariantValue())
-                            .quantity(item.getQuantity())
-                            .price(variant.getPrice().doubleValue())
-                            .totalPrice(item.getQuantity() * variant.getPrice().doubleValue())
-                            .imageUrl(imageUrl)
-                            .build();
-                })
-                .collect(Collectors.toList());
+            items.add(toItemDTO(line.itemId(), line.quantity(), variant));
+        }
 
+        return toCartDTO(cart.cartId(), cart.userId(), items);
+    }
+
+    private CartItemDTO toItemDTO(Long itemId, int quantity, CartVariantView variant) {
+        return CartItemDTO.builder()
+                .id(itemId)
+                .productVariantId(variant.getVariantId())
+                .productName(variant.getProductTitle())
+                .variantDetails(variant.getVariantName() + " : " + variant.getVariantValue())
+                .quantity(quantity)
+                .price(variant.getPrice().doubleValue())
+                .totalPrice(quantity * variant.getPrice().doubleValue())
+                .imageUrl(variant.getImageUrl())
+                .build();
+    }
+
+    private CartDTO toCartDTO(Long cartId, Long userId, List<CartItemDTO> items) {
         double total = items.stream()
                 .mapToDouble(CartItemDTO::getTotalPrice)
                 .sum();
 
         return CartDTO.builder()
-                .id(cart.getId())
-                .userId(cart.getUser().getId())
+                .id(cartId)
+                .userId(userId)
                 .items(items)
                 .totalAmount(total)
                 .build();
     }
 
-    public void updateCartItemQuantity(Long itemId, int quantity) {
-        CartItem item = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
-
-        item.setQuantity(quantity);
-        cartItemRepository.save(item);
+    /** Sets the quantity of a line of the caller's cart; lines of other carts are not found. */
+    public void updateCartItemQuantity(String email, Long itemId, int quantity) {
+        Long cartId = cartIdLookup.getOrCreate(email);
+
+        Optional<WriteBehindCartStore.Snapshot> stored = cartStore.isEnabled()
+                ? cartStore.apply(cartId, cart -> cart.setQuantity(itemId, quantity))
+                : Optional.empty();
+        boolean found = stored.isPresent()
+                ? stored.get().lines().stream().anyMatch(line -> line.itemId().equals(itemId))
+                : cartItemRepository.updateQuantity(cartId, itemId, quantity) > 0;
+        if (!found) {
+            throw new RuntimeException("Cart item not found");
+        }
     }
 }
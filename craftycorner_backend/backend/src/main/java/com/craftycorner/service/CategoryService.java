@@ -1,10 +1,14 @@
 package com.craftycorner.service;
 
+import com.craftycorner.event.ProductChangedEvent;
 import com.craftycorner.model.Category;
 import com.craftycorner.repository.CategoryRepository;
+import com.craftycorner.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +17,8 @@ import java.util.Optional;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Category createCategory(Category category) {
         return categoryRepository.save(category);
@@ -25,7 +31,11 @@ public class CategoryService {
         existing.setName(category.getName());
         existing.setDescription(category.getDescription());
 
-        return categoryRepository.save(existing);
+        Category saved = categoryRepository.save(existing);
+        // The category name is shown on every product in it
+        productRepository.touchByCategoryId(id, LocalDateTime.now());
+        eventPublisher.publishEvent(new ProductChangedEvent(productRepository.findIdsByCategoryId(id)));
+        return saved;
     }
 
     public List<Category> getAllCategories() {
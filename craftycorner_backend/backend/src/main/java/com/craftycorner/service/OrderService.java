@@ -1,5 +1,6 @@
 package com.craftycorner.service;
 
+import com.craftycorner.cache.WriteBehindCartStore;
 import com.craftycorner.dto.order.OrderDTO;
 import com.craftycorner.dto.order.PlaceOrderRequest;
 import com.craftycorner.model.*;
@@ -27,6 +28,7 @@ public class OrderService {
     private final NotificationService notificationService;
     private final AddressRepository addressRepository;
     private final VendorProfileRepository vendorProfileRepository;
+    private final WriteBehindCartStore cartStore;
 
     public List<OrderDTO> getOrdersByUser(Long userId) {
         return orderRepository.findByUserId(userId)
@@ -53,6 +55,8 @@ public class OrderService {
 
     @Transactional
     public OrderDTO placeOrder(PlaceOrderRequest request) {
+        // Before any read here: a write-behind cart is written out and left to this transaction
+        cartStore.beginCheckout(request.getUserId());
 
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
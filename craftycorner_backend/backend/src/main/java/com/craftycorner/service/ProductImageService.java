@@ -1,6 +1,7 @@
 package com.craftycorner.service;
 
 import com.craftycorner.dto.product.ProductImageDTO;
+import com.craftycorner.event.ProductChangedEvent;
 import com.craftycorner.model.Product;
 import com.craftycorner.model.ProductImage;
 import com.craftycorner.repository.ProductImageRepository;
@@ -8,6 +9,7 @@ import com.craftycorner.repository.ProductRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -15,6 +17,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,6 +27,7 @@ public class ProductImageService {
 
     private final ProductImageRepository imageRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.base-url:http://localhost:8082}")
     private String baseUrl;
@@ -72,6 +76,8 @@ public class ProductImageService {
             image.setPrimaryImage(primaryImage);
 
             ProductImage saved = imageRepository.save(image);
+            productRepository.touch(productId, LocalDateTime.now());
+            eventPublisher.publishEvent(ProductChangedEvent.of(productId));
             return ProductImageDTO.fromEntity(saved, baseUrl);
 
         } catch (IOException e) {
@@ -107,6 +113,8 @@ public class ProductImageService {
         }
 
         ProductImage saved = imageRepository.save(image);
+        productRepository.touch(image.getProduct().getId(), LocalDateTime.now());
+        eventPublisher.publishEvent(ProductChangedEvent.of(image.getProduct().getId()));
         return ProductImageDTO.fromEntity(saved, baseUrl);
     }
 
@@ -128,5 +136,8 @@ public class ProductImageService {
                 imageRepository.save(first);
             }
         }
+
+        productRepository.touch(productId, LocalDateTime.now());
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
     }
 }
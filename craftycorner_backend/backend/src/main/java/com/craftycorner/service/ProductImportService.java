@@ -0,0 +1,278 @@
+package com.craftycorner.service;
+
+import com.craftycorner.dto.product.ProductImportStatus;
+import com.craftycorner.event.ProductChangedEvent;
+import com.craftycorner.importer.ProductImportRow;
+import com.craftycorner.importer.ProductRowReader;
+import com.craftycorner.model.IdGenerators;
+import com.craftycorner.model.ProductStatus;
+import com.craftycorner.model.User;
+import com.craftycorner.model.VendorProfile;
+import com.craftycorner.repository.CategoryRepository;
+import com.craftycorner.repository.IdGeneratorRepository;
+import com.craftycorner.repository.TagDictionary;
+import com.craftycorner.repository.UserRepository;
+import com.craftycorner.repository.VendorProfileRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bulk product import for vendors. Rows are pulled from the reader one at a time and
+ * validated as they arrive; valid rows are written in fixed-size chunks, each in its own
+ * transaction, with JDBC batch inserts for products and the {@code product_tags} join.
+ * Product ids are reserved from the same generator rows Hibernate uses, and tag ids come
+ * from the {@link TagDictionary}. Only the current chunk is ever held in memory. Row errors,
+ * chunk progress and the final totals are reported to the listener as they happen.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 2000;
+    private static final int MAX_TAG_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final UserRepository userRepository;
+    private final VendorProfileRepository vendorProfileRepository;
+    private final CategoryRepository categoryRepository;
+    private final IdGeneratorRepository idGeneratorRepository;
+    private final TagDictionary tagDictionary;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.products.import.chunk-size:500}")
+    private int chunkSize;
+
+    public void importProducts(String vendorEmail, ProductRowReader reader, Consumer<ProductImportStatus> listener) throws IOException {
+        User user = userRepository.findByEmail(vendorEmail)
+                .orElseThrow(() -> new RuntimeException("User not found: " + vendorEmail));
+        VendorProfile vendor = vendorProfileRepository.findByUserId(user.getId())
+                .orElseThrow(() -> new RuntimeException("Vendor profile not found for: " + vendorEmail));
+
+        Import run = new Import(vendor.getId(), listener);
+        for (ProductImportRow row = reader.next(); row != null; row = reader.next()) {
+            run.rowsRead++;
+            ValidRow valid = validate(row, run);
+            if (valid == null) continue;
+
+            run.chunk.add(valid);
+            if (run.chunk.size() >= chunkSize) flush(run);
+        }
+        flush(run);
+
+        listener.accept(ProductImportStatus.builder()
+                .type("done")
+                .rowsRead(run.rowsRead)
+                .imported(run.imported)
+                .failed(run.failed)
+                .build());
+    }
+
+    private ValidRow validate(ProductImportRow row, Import run) {
+        if (row.getError() != null) return run.reject(row.getLine(), row.getError());
+
+        String title = trimToNull(row.getTitle());
+        if (title == null) return run.reject(row.getLine(), "title is required");
+        if (title.length() > MAX_TITLE_LENGTH) return run.reject(row.getLine(), "title is longer than " + MAX_TITLE_LENGTH);
+
+        String description = trimToNull(row.getDescription());
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            return run.reject(row.getLine(), "description is longer than " + MAX_DESCRIPTION_LENGTH);
+        }
+
+        BigDecimal basePrice;
+        try {
+            basePrice = trimToNull(row.getBasePrice()) != null ? new BigDecimal(row.getBasePrice().trim()) : null;
+        } catch (NumberFormatException e) {
+            return run.reject(row.getLine(), "basePrice is not a number: " + row.getBasePrice());
+        }
+        if (basePrice == null) return run.reject(row.getLine(), "basePrice is required");
+        if (basePrice.signum() < 0) return run.reject(row.getLine(), "basePrice must not be negative");
+
+        int leadTimeDays;
+        try {
+            leadTimeDays = trimToNull(row.getLeadTimeDays()) != null ? Integer.parseInt(row.getLeadTimeDays().trim()) : 0;
+        } catch (NumberFormatException e) {
+            return run.reject(row.getLine(), "leadTimeDays is not a whole number: " + row.getLeadTimeDays());
+        }
+        if (leadTimeDays < 0) return run.reject(row.getLine(), "leadTimeDays must not be negative");
+
+        ProductStatus status;
+        try {
+            status = trimToNull(row.getStatus()) != null ? ProductStatus.valueOf(row.getStatus().trim().toUpperCase()) : ProductStatus.DRAFT;
+        } catch (IllegalArgumentException e) {
+            return run.reject(row.getLine(), "Unknown status: " + row.getStatus());
+        }
+
+        Long categoryId;
+        try {
+            categoryId = trimToNull(row.getCategoryId()) != null ? Long.valueOf(row.getCategoryId().trim()) : null;
+        } catch (NumberFormatException e) {
+            return run.reject(row.getLine(), "categoryId is not a number: " + row.getCategoryId());
+        }
+        if (categoryId == null) return run.reject(row.getLine(), "categoryId is required");
+        if (!run.categoryExists(categoryId)) return run.reject(row.getLine(), "Category not found: " + categoryId);
+
+        Set<String> tags = new LinkedHashSet<>();
+        for (String tag : row.getTags()) {
+            String name = trimToNull(tag);
+            if (name == null) continue;
+            if (name.length() > MAX_TAG_LENGTH) return run.reject(row.getLine(), "tag is longer than " + MAX_TAG_LENGTH);
+            tags.add(name);
+        }
+
+        return new ValidRow(row.getLine(), title, description, basePrice,
+                Boolean.parseBoolean(trimToNull(row.getMadeToOrder())), leadTimeDays, status, categoryId, tags);
+    }
+
+    private void flush(Import run) {
+        if (run.chunk.isEmpty()) return;
+        List<ValidRow> chunk = run.chunk;
+        run.chunk = new ArrayList<>(chunkSize);
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+                List<Long> ids = insertProducts(chunk, run.vendorId);
+                insertProductTags(chunk, ids);
+                eventPublisher.publishEvent(new ProductChangedEvent(ids));
+            });
+            run.imported += chunk.size();
+        } catch (DataAccessException e) {
+            String message = "Chunk rejected by the database: " + e.getMostSpecificCause().getMessage();
+            for (ValidRow row : chunk) run.reject(row.line(), message);
+        }
+
+        run.listener.accept(ProductImportStatus.builder()
+                .type("progress")
+                .rowsRead(run.rowsRead)
+                .imported(run.imported)
+                .failed(run.failed)
+                .build());
+    }
+
+    private List<Long> insertProducts(List<ValidRow> chunk, Long vendorId) {
+        long firstId = idGeneratorRepository.reserve(IdGenerators.PRODUCTS, chunk.size());
+        List<Long> ids = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) ids.add(firstId + i);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO products (id, title, description, base_price, made_to_order, lead_time_days, status, "
+                        + "created_at, updated_at, category_id, vendor_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement insert, int i) throws SQLException {
+                        ValidRow row = chunk.get(i);
+                        insert.setLong(1, ids.get(i));
+                        insert.setString(2, row.title());
+                        if (row.description() != null) insert.setString(3, row.description());
+                        else insert.setNull(3, Types.VARCHAR);
+                        insert.setBigDecimal(4, row.basePrice());
+                        insert.setBoolean(5, row.madeToOrder());
+                        insert.setInt(6, row.leadTimeDays());
+                        insert.setString(7, row.status().name());
+                        insert.setTimestamp(8, now);
+                        insert.setTimestamp(9, now);
+                        insert.setLong(10, row.categoryId());
+                        insert.setLong(11, vendorId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                });
+        return ids;
+    }
+
+    private void insertProductTags(List<ValidRow> chunk, List<Long> productIds) {
+        Set<String> names = new HashSet<>();
+        for (ValidRow row : chunk) names.addAll(row.tags());
+        if (names.isEmpty()) return;
+        Map<String, Long> tagIds = tagDictionary.resolve(names);
+
+        List<long[]> links = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            // Spellings differing only in case resolve to the same tag; link it once
+            Set<Long> linked = new HashSet<>();
+            for (String tag : chunk.get(i).tags()) {
+                Long tagId = tagIds.get(tag);
+                if (linked.add(tagId)) links.add(new long[]{productIds.get(i), tagId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product_tags (product_id, tag_id) VALUES (?, ?)", links, chunkSize,
+                (statement, link) -> {
+                    statement.setLong(1, link[0]);
+                    statement.setLong(2, link[1]);
+                });
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private record ValidRow(
+            long line,
+            String title,
+            String description,
+            BigDecimal basePrice,
+            boolean madeToOrder,
+            int leadTimeDays,
+            ProductStatus status,
+            Long categoryId,
+            Set<String> tags
+    ) {
+    }
+
+    /** State of one running import; everything in it is bounded by chunk size or distinct values. */
+    private class Import {
+        private final Long vendorId;
+        private final Consumer<ProductImportStatus> listener;
+        private final Map<Long, Boolean> categories = new HashMap<>();
+        private List<ValidRow> chunk = new ArrayList<>(chunkSize);
+        private long rowsRead;
+        private long imported;
+        private long failed;
+
+        private Import(Long vendorId, Consumer<ProductImportStatus> listener) {
+            this.vendorId = vendorId;
+            this.listener = listener;
+        }
+
+        private boolean categoryExists(Long categoryId) {
+            return categories.computeIfAbsent(categoryId, categoryRepository::existsById);
+        }
+
+        private ValidRow reject(long line, String message) {
+            failed++;
+            listener.accept(ProductImportStatus.builder().type("error").line(line).message(message).build());
+            return null;
+        }
+    }
+}
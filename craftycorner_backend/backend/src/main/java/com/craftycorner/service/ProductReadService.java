@@ -0,0 +1,139 @@
+package com.craftycorner.service;
+
+import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.dto.product.ProductRow;
+import com.craftycorner.model.OnboardingStatus;
+import com.craftycorner.model.ProductStatus;
+import com.craftycorner.repository.ProductImageRepository;
+import com.craftycorner.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only product listings built without loading entities: one projection query for
+ * the product rows (category and vendor names joined in), then one IN query each for
+ * tags and image urls per {@link #ID_BATCH_SIZE} products. A listing of N products costs
+ * 1 + 2 * ceil(N / ID_BATCH_SIZE) statements instead of several per product.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ProductReadService {
+
+    private static final int ID_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+
+    @Value("${app.base-url:http://localhost:8082}")
+    private String baseUrl;
+
+    /** ACTIVE products of APPROVED vendors, as shown on the storefront. */
+    public List<ProductDTO> getActiveCatalog() {
+        return toDTOs(productRepository.findRowsByStatusAndVendorStatus(ProductStatus.ACTIVE, OnboardingStatus.APPROVED));
+    }
+
+    /** The subset of {@code ids} that is currently on the storefront. */
+    public List<ProductDTO> getActiveCatalogByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        return toDTOs(productRepository.findRowsByIdInAndStatusAndVendorStatus(
+                ids, ProductStatus.ACTIVE, OnboardingStatus.APPROVED));
+    }
+
+    public List<ProductDTO> getAll() {
+        return toDTOs(productRepository.findAllRows());
+    }
+
+    public List<ProductDTO> getByStatus(ProductStatus status) {
+        return toDTOs(productRepository.findRowsByStatus(status));
+    }
+
+    public List<ProductDTO> getByVendor(Long vendorId) {
+        return toDTOs(productRepository.findRowsByVendorId(vendorId));
+    }
+
+    /** The {@code limit} most recently created products, newest first. */
+    public List<ProductDTO> getRecent(int limit) {
+        return toDTOs(productRepository.findRecentRows(PageRequest.of(0, limit)));
+    }
+
+    /** The last {@code limit} products of {@link #getAll()}, in the same (id) order. */
+    public List<ProductDTO> getLast(int limit) {
+        List<ProductRow> rows = new ArrayList<>(productRepository.findRowsByIdDesc(PageRequest.of(0, limit)));
+        Collections.reverse(rows);
+        return toDTOs(rows);
+    }
+
+    /** Products for {@code ids} in the same order; unknown ids are skipped. */
+    public List<ProductDTO> getByIds(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, ProductDTO> byId = toDTOs(productRepository.findRowsByIdIn(ids)).stream()
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /** Absolute url for a stored image path. */
+    public String imageUrl(String url) {
+        if (url == null) return null;
+        if (url.startsWith("http://") || url.startsWith("https://")) return url;
+        if (url.startsWith("/uploads")) return baseUrl + url;
+        if (url.startsWith("uploads")) return baseUrl + "/" + url;
+        return baseUrl + "/uploads/" + url;
+    }
+
+    private List<ProductDTO> toDTOs(List<ProductRow> rows) {
+        if (rows.isEmpty()) return List.of();
+
+        List<Long> ids = rows.stream().map(ProductRow::getId).toList();
+        Map<Long, List<String>> tags = new HashMap<>();
+        Map<Long, List<String>> images = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()));
+            group(productRepository.findTagNamesByProductIdIn(batch), tags);
+            group(productImageRepository.findUrlsByProductIdIn(batch), images);
+        }
+
+        return rows.stream()
+                .map(row -> new ProductDTO(
+                        row.getId(),
+                        row.getTitle(),
+                        row.getDescription(),
+                        row.getBasePrice(),
+                        row.getMadeToOrder(),
+                        row.getLeadTimeDays(),
+                        row.getStatus(),
+                        row.getCreatedAt(),
+                        row.getUpdatedAt(),
+                        row.getCategoryId(),
+                        row.getCategoryName(),
+                        row.getVendorName(),
+                        tags.getOrDefault(row.getId(), List.of()),
+                        images.getOrDefault(row.getId(), List.<String>of()).stream()
+                                .map(this::imageUrl)
+                                .filter(Objects::nonNull)
+                                .toList()
+                ))
+                .toList();
+    }
+
+    /** Groups (product id, value) pairs by product id. */
+    private static void group(Collection<Object[]> pairs, Map<Long, List<String>> target) {
+        for (Object[] pair : pairs) {
+            target.computeIfAbsent((Long) pair[0], id -> new ArrayList<>()).add((String) pair[1]);
+        }
+    }
+}
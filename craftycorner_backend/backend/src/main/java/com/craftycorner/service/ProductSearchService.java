@@ -1,19 +1,35 @@
 package com.craftycorner.service;
 
+import com.craftycorner.cache.SearchResultCache;
+import com.craftycorner.dto.common.CacheStats;
 import com.craftycorner.dto.common.SearchResponse;
 import com.craftycorner.dto.product.ProductSearchDTO;
 import com.craftycorner.model.Product;
 import com.craftycorner.repository.ProductRepository;
+import com.craftycorner.search.ProductCursor;
+import com.craftycorner.search.ProductSearchEngine;
+import com.craftycorner.search.ProductSuggester;
+import com.craftycorner.search.SearchDocument;
+import com.craftycorner.search.SearchQuery;
+import com.craftycorner.search.SearchResult;
+import com.craftycorner.search.SearchSort;
+import com.craftycorner.search.SearchTokenizer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +37,16 @@ import java.util.stream.Collectors;
 public class ProductSearchService {
 
     private final ProductRepository productRepository;
+    private final ProductSearchEngine productSearchEngine;
+    private final ProductSuggester productSuggester;
+    private final SearchResultCache searchResultCache;
+
+    /** "index" answers from the in-memory search index, "native" always runs the SQL query. */
+    @Value("${app.search.engine:index}")
+    private String searchEngine;
+
+    @Value("${app.search.fuzzy.budget-ms:20}")
+    private long fuzzyBudgetMs;
 
     public SearchResponse<ProductSearchDTO> searchProducts(
             String keyword,
@@ -29,33 +55,28 @@ public class ProductSearchService {
             BigDecimal maxPrice,
             String sortBy,
             int page,
-            int size
+            int size,
+            String after,
+            boolean fuzzy
     ) {
-        String sortParam = (sortBy == null ? "newest" : sortBy.toLowerCase().trim());
-
-        // Run native search
-        List<Product> allProducts = productRepository.searchProductsNative(keyword, category, sortParam);
-
-        // Apply price filter in Java
-        if (minPrice != null || maxPrice != null) {
-            allProducts = allProducts.stream()
-                    .filter(p -> {
-                        if (p.getBasePrice() == null) return false;
-                        boolean withinMin = (minPrice == null || p.getBasePrice().compareTo(minPrice) >= 0);
-                        boolean withinMax = (maxPrice == null || p.getBasePrice().compareTo(maxPrice) <= 0);
-                        return withinMin && withinMax;
-                    })
-                    .collect(Collectors.toList());
-        }
-
-        // Pagination manually since native query returns list
-        int start = Math.min(page * size, allProducts.size());
-        int end = Math.min(start + size, allProducts.size());
-        
-        Page<Product> pageResult = new PageImpl<>(
-                allProducts.subList(start, end),
+        SearchSort sort = SearchSort.fromParam(sortBy);
+        String sortParam = sort.getParam();
+        ProductCursor cursor = (after == null || after.isBlank()) ? null : ProductCursor.decode(after, sort);
+
+        String normalizedCategory = SearchTokenizer.normalize(category);
+        String cacheKey = cacheKey(keyword, normalizedCategory, minPrice, maxPrice, sort, page, size, after, fuzzy);
+        SearchResponse<ProductSearchDTO> cached = searchResultCache.get(cacheKey);
+        if (cached != null) return cached;
+        long cacheStamp = searchResultCache.stamp();
+
+        SearchPage result = useIndex()
+                ? searchIndex(keyword, category, minPrice, maxPrice, sort, page, size, cursor, fuzzy)
+                : searchNative(keyword, category, minPrice, maxPrice, sort, page, size, cursor);
+
+        Page<ProductSearchDTO> pageResult = new PageImpl<>(
+                result.getContent(),
                 PageRequest.of(page, size),
-                allProducts.size()
+                result.getTotal()
         );
 
         // Collect filters
@@ -64,20 +85,172 @@ public class ProductSearchService {
         if (category != null && !category.isBlank()) appliedFilters.put("category", category);
         if (minPrice != null) appliedFilters.put("minPrice", minPrice);
         if (maxPrice != null) appliedFilters.put("maxPrice", maxPrice);
+        if (fuzzy) appliedFilters.put("fuzzy", true);
         appliedFilters.put("sortBy", sortParam);
 
         // Build final response
-        return new SearchResponse<>(
-                pageResult.getContent().stream()
-                        .map(ProductSearchDTO::fromEntity)
-                        .collect(Collectors.toList()),
+        SearchResponse<ProductSearchDTO> response = new SearchResponse<>(
+                pageResult.getContent(),
                 pageResult.getNumber(),
                 pageResult.getSize(),
                 pageResult.getTotalElements(),
                 pageResult.getTotalPages(),
-                pageResult.isLast(),
+                result.getNextCursor() == null,
                 sortParam,
-                appliedFilters
+                appliedFilters,
+                result.getNextCursor(),
+                result.getFacets()
+        );
+        searchResultCache.put(cacheKey, response, normalizedCategory, cacheStamp);
+        return response;
+    }
+
+    /**
+     * Version of the data searches are answered from, or null when results come straight
+     * from SQL and have no version. Read it before searching so a response is never tagged
+     * newer than its contents.
+     */
+    public Long getResultsVersion() {
+        return useIndex() ? productSearchEngine.getGeneration() : null;
+    }
+
+    public CacheStats getCacheStats() {
+        return searchResultCache.stats();
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        return productSuggester.suggest(prefix, limit);
+    }
+
+    /** Queries that differ only in case, spacing or price scale share an entry. */
+    private static String cacheKey(
+            String keyword,
+            String category,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            SearchSort sort,
+            int page,
+            int size,
+            String after,
+            boolean fuzzy
+    ) {
+        return String.join("|",
+                String.join(" ", SearchTokenizer.tokenize(keyword)),
+                Objects.toString(category, ""),
+                minPrice != null ? minPrice.stripTrailingZeros().toPlainString() : "",
+                maxPrice != null ? maxPrice.stripTrailingZeros().toPlainString() : "",
+                sort.getParam(),
+                String.valueOf(page),
+                String.valueOf(size),
+                after != null && !after.isBlank() ? after : "",
+                String.valueOf(fuzzy));
+    }
+
+    private boolean useIndex() {
+        return "index".equalsIgnoreCase(searchEngine) && productSearchEngine.isReady();
+    }
+
+    private SearchPage searchIndex(
+            String keyword,
+            String category,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            SearchSort sort,
+            int page,
+            int size,
+            ProductCursor cursor,
+            boolean fuzzy
+    ) {
+        SearchResult result = productSearchEngine.search(SearchQuery.builder()
+                .keyword(keyword)
+                .category(category)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .sort(sort)
+                .offset(cursor != null ? 0 : page * size)
+                .limit(size)
+                .after(cursor)
+                .fuzzy(fuzzy)
+                .fuzzyBudget(Duration.ofMillis(fuzzyBudgetMs))
+                .build());
+
+        return new SearchPage(
+                result.getHits().stream().map(this::toDTO).collect(Collectors.toList()),
+                result.getTotal(),
+                result.getNext() != null ? result.getNext().encode() : null,
+                result.getFacets()
         );
     }
+
+    private SearchPage searchNative(
+            String keyword,
+            String category,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            SearchSort sort,
+            int page,
+            int size,
+            ProductCursor cursor
+    ) {
+        // Price range, ordering and LIMIT/OFFSET (or the keyset cursor) all run in SQL;
+        // one extra id is fetched to know whether another page follows. SQL cannot rank
+        // by relevance, so that sort is served newest first.
+        String sqlSort = sort == SearchSort.RELEVANCE ? SearchSort.NEWEST.getParam() : sort.getParam();
+        List<Long> ids = productRepository.searchProductIdsNative(
+                keyword, category, minPrice, maxPrice, sqlSort,
+                cursor != null ? ProductCursor.priceKey(cursor.getPrice()) : null,
+                cursor != null ? cursor.getCreatedAt() : null,
+                cursor != null ? cursor.getId() : null,
+                size + 1,
+                cursor != null ? 0L : (long) page * size
+        );
+        boolean hasMore = ids.size() > size;
+        List<Long> pageIds = hasMore ? ids.subList(0, size) : ids;
+
+        long total = productRepository.countSearchProductsNative(keyword, category, minPrice, maxPrice);
+
+        // Materialize just the requested page, keeping the SQL order
+        Map<Long, Product> byId = pageIds.isEmpty()
+                ? Map.of()
+                : productRepository.findAllWithImagesByIdIn(pageIds).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<Product> products = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        Product last = products.isEmpty() ? null : products.get(products.size() - 1);
+        String nextCursor = hasMore && last != null
+                ? new ProductCursor(sort, last.getId(), ProductCursor.priceKey(last.getBasePrice()), last.getCreatedAt()).encode()
+                : null;
+
+        return new SearchPage(
+                products.stream().map(ProductSearchDTO::fromEntity).collect(Collectors.toList()),
+                total,
+                nextCursor,
+                null
+        );
+    }
+
+    private ProductSearchDTO toDTO(SearchDocument document) {
+        return ProductSearchDTO.builder()
+                .id(document.getId())
+                .title(document.getTitle())
+                .description(document.getDescription())
+                .categoryName(document.getCategoryName())
+                .vendorName(document.getVendorName())
+                .basePrice(document.getBasePrice())
+                .imageUrls(document.getImageUrls())
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class SearchPage {
+        private final List<ProductSearchDTO> content;
+        private final long total;
+        private final String nextCursor;
+        private final Map<String, Map<String, Integer>> facets;
+    }
 }
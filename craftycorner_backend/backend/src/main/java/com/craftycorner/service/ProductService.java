@@ -1,15 +1,26 @@
 package com.craftycorner.service;
 
+import com.craftycorner.cache.ProductDetailCache;
+import com.craftycorner.dto.common.CacheStats;
+import com.craftycorner.dto.common.CursorPage;
+import com.craftycorner.dto.product.ProductBatchResponse;
 import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.event.ProductChangedEvent;
 import com.craftycorner.model.*;
 import com.craftycorner.repository.*;
+import com.craftycorner.search.ProductCursor;
+import com.craftycorner.search.SearchSort;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,10 +31,14 @@ public class ProductService {
     private final VendorProfileRepository vendorProfileRepository;
     private final UserRepository userRepository;
     private final TagRepository tagRepository;
+    private final TagDictionary tagDictionary;
+    private final ProductReadService productReadService;
+    private final StorefrontCatalog storefrontCatalog;
+    private final ProductDetailCache productDetailCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Value("${app.base-url:http://localhost:8082}")
-    private String baseUrl;
-
+    @Value("${app.products.batch.max-ids:100}")
+    private int maxBatchIds;
 
     private ProductDTO mapToDTO(Product p) {
 
@@ -33,7 +48,7 @@ public class ProductService {
 
         List<String> imageUrls = p.getImages() != null
                 ? p.getImages().stream()
-                    .map(img -> normalizeImageUrl(img.getImageUrl()))
+                    .map(img -> productReadService.imageUrl(img.getImageUrl()))
                     .filter(Objects::nonNull)
                     .toList()
                 : List.of();
@@ -56,27 +71,15 @@ public class ProductService {
         );
     }
 
-    private String normalizeImageUrl(String url) {
-        if (url == null) return null;
-        if (url.startsWith("http://") || url.startsWith("https://")) return url;
-        if (url.startsWith("/uploads")) return baseUrl + url;
-        if (url.startsWith("uploads")) return baseUrl + "/" + url;
-        return baseUrl + "/uploads/" + url;
-    }
-
 
+    /**
+     * Tags are resolved through the dictionary and loaded with a single query. Callers do
+     * this before writing the product, so a dictionary back-off holds no product row lock.
+     */
     private void setTags(Product product, List<String> tagNames) {
         if (tagNames != null && !tagNames.isEmpty()) {
-
-            Set<Tag> tags = tagNames.stream()
-                    .map(name -> 
-                            tagRepository.findByName(name)
-                                .orElseGet(() -> tagRepository.save(Tag.builder().name(name).build()))
-                    )
-                    .collect(Collectors.toSet());
-
-            product.setTags(tags);
-
+            Collection<Long> tagIds = tagDictionary.resolve(tagNames).values();
+            product.setTags(new HashSet<>(tagRepository.findAllById(tagIds)));
         } else {
             product.setTags(new HashSet<>());
         }
@@ -106,6 +109,7 @@ public class ProductService {
         setTags(product, tagNames);
 
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(saved.getId()));
         return mapToDTO(saved);
     }
 
@@ -141,6 +145,7 @@ public class ProductService {
         setTags(existing, tagNames);
 
         Product saved = productRepository.save(existing);
+        eventPublisher.publishEvent(ProductChangedEvent.of(saved.getId()));
         return mapToDTO(saved);
     }
 
@@ -155,23 +160,107 @@ public class ProductService {
         }
 
         productRepository.delete(existing);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
     }
 
 
-    @Transactional(readOnly = true)
+    /** Served from the in-memory storefront snapshot; no transaction or database access. */
     public List<ProductDTO> getAllActiveProducts() {
-        return productRepository.findAllActiveProducts()
-                .stream()
-                .filter(p -> p.getVendor() != null && p.getVendor().getOnboardingStatus() == OnboardingStatus.APPROVED)
-                .map(this::mapToDTO)
-                .toList();
+        return storefrontCatalog.getProducts();
     }
 
+    /**
+     * Keyset page of the storefront catalog: every page costs the same as the first one and
+     * stays stable while new products are inserted.
+     */
     @Transactional(readOnly = true)
+    public CursorPage<ProductDTO> getActiveProductsPage(String after, String sortBy, int size) {
+        SearchSort sort = SearchSort.fromParam(sortBy);
+        ProductCursor cursor = (after == null || after.isBlank()) ? null : ProductCursor.decode(after, sort);
+        Long afterId = cursor != null ? cursor.getId() : null;
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<Long> ids = switch (sort) {
+            case PRICE_ASC -> productRepository.findCatalogIdsPriceAsc(ProductStatus.ACTIVE, OnboardingStatus.APPROVED,
+                    cursor != null ? cursor.getPrice() : null, afterId, limit);
+            case PRICE_DESC -> productRepository.findCatalogIdsPriceDesc(ProductStatus.ACTIVE, OnboardingStatus.APPROVED,
+                    cursor != null ? cursor.getPrice() : null, afterId, limit);
+            default -> productRepository.findCatalogIdsNewest(ProductStatus.ACTIVE, OnboardingStatus.APPROVED,
+                    cursor != null ? cursor.getCreatedAt() : null, afterId, limit);
+        };
+
+        boolean hasMore = ids.size() > size;
+        List<Long> pageIds = hasMore ? ids.subList(0, size) : ids;
+
+        List<ProductDTO> products = productReadService.getByIds(pageIds);
+        ProductDTO last = products.isEmpty() ? null : products.get(products.size() - 1);
+
+        String nextCursor = hasMore && last != null
+                ? new ProductCursor(
+                        sort,
+                        last.getId(),
+                        last.getBasePrice() != null ? last.getBasePrice() : BigDecimal.ZERO,
+                        last.getCreatedAt()
+                  ).encode()
+                : null;
+
+        return new CursorPage<>(
+                products,
+                size,
+                sort.getParam(),
+                nextCursor
+        );
+    }
+
+    /**
+     * Last modification of the product as it is served, without loading it: from the detail
+     * cache when present, else a single-column lookup. Null when unknown.
+     */
+    public LocalDateTime getProductVersion(Long id) {
+        ProductDTO cached = productDetailCache.getIfPresent(id);
+        if (cached != null) return cached.getUpdatedAt();
+        return productRepository.findUpdatedAtById(id).orElse(null);
+    }
+
+    /** Version of the storefront snapshot behind the catalog listings, or 0 while there is none. */
+    public long getCatalogVersion() {
+        return storefrontCatalog.getVersion();
+    }
+
+    /** Cached; concurrent misses on the same id share one database load. */
     public ProductDTO getProductById(Long id) {
-        Product p = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found: " + id));
-        return mapToDTO(p);
+        return productDetailCache.get(id, this::loadProduct);
+    }
+
+    /**
+     * Multi-get for screens that show many products at once. Cached details are reused and
+     * the rest are loaded together (one row query plus one each for tags and images).
+     * Results follow the request order with repeats dropped; unknown ids are reported as
+     * missing.
+     */
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        List<Long> wanted = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (wanted.size() > maxBatchIds) {
+            throw new RuntimeException("At most " + maxBatchIds + " product ids can be requested at once");
+        }
+
+        Map<Long, ProductDTO> found = productDetailCache.getAll(wanted, productReadService::getByIds);
+        return new ProductBatchResponse(
+                wanted.stream().map(found::get).filter(Objects::nonNull).toList(),
+                wanted.stream().filter(id -> !found.containsKey(id)).toList()
+        );
+    }
+
+    private ProductDTO loadProduct(Long id) {
+        List<ProductDTO> found = productReadService.getByIds(List.of(id));
+        if (found.isEmpty()) {
+            throw new RuntimeException("Product not found: " + id);
+        }
+        return found.get(0);
+    }
+
+    public CacheStats getDetailCacheStats() {
+        return productDetailCache.stats();
     }
 
     @Transactional(readOnly = true)
@@ -183,26 +272,22 @@ public class ProductService {
         VendorProfile vendor = vendorProfileRepository.findByUserId(user.getId())
                 .orElseThrow(() -> new RuntimeException("Vendor profile not found: " + vendorEmail));
 
-        return productRepository.findByVendor_Id(vendor.getId())
-                .stream()
-                .map(this::mapToDTO)
-                .toList();
+        return productReadService.getByVendor(vendor.getId());
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(this::mapToDTO)
-                .toList();
+        return productReadService.getAll();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getLastProducts(int limit) {
+        return productReadService.getLast(limit);
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getProductsByStatus(ProductStatus status) {
-        return productRepository.findByStatus(status)
-                .stream()
-                .map(this::mapToDTO)
-                .toList();
+        return productReadService.getByStatus(status);
     }
 
     @Transactional
@@ -212,6 +297,7 @@ public class ProductService {
 
         product.setStatus(status);
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
 
         return mapToDTO(product);
     }
@@ -222,5 +308,6 @@ public class ProductService {
             throw new RuntimeException("Product not found: " + productId);
         }
         productRepository.deleteById(productId);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
     }
 }
@@ -0,0 +1,87 @@
+package com.craftycorner.service;
+
+import com.craftycorner.model.Product;
+import com.craftycorner.model.ProductVariant;
+import com.craftycorner.repository.ProductRepository;
+import com.craftycorner.repository.ProductVariantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves the id a client adds to its cart. That is a variant id or, for products listed
+ * without variants, the product id, which maps to the product's oldest variant. A product
+ * with no variant at all gets a default one on first use.
+ * <p>
+ * Every lookup goes through the primary key or the {@code product_id} index, so the cost
+ * does not grow with the catalog. Creating the default variant locks the product row, and
+ * the re-check after the lock is a locking read as well, so concurrent first adds of the
+ * same product see each other's variant and only one is ever created.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ProductVariantResolver {
+
+    private static final String DEFAULT_VARIANT_NAME = "Default";
+    private static final String DEFAULT_VARIANT_VALUE = "Standard";
+    private static final int DEFAULT_STOCK_QUANTITY = 100;
+
+    private final ProductVariantRepository productVariantRepository;
+    private final ProductRepository productRepository;
+
+    public ProductVariant resolve(Long variantOrProductId) {
+        Optional<ProductVariant> variant = productVariantRepository.findById(variantOrProductId);
+        if (variant.isPresent()) return variant.get();
+
+        return productVariantRepository.findFirstByProductIdOrderByIdAsc(variantOrProductId)
+                .orElseGet(() -> createDefaultVariant(variantOrProductId));
+    }
+
+    /**
+     * {@link #resolve} for many ids: one query for the variant ids and one for the oldest
+     * variant of the product ids. Only products without any variant cost more; their rows
+     * are locked in id order, so two batches never wait on each other's products.
+     */
+    public Map<Long, ProductVariant> resolveAll(Collection<Long> variantOrProductIds) {
+        Map<Long, ProductVariant> resolved = new HashMap<>();
+        if (variantOrProductIds.isEmpty()) return resolved;
+
+        for (ProductVariant variant : productVariantRepository.findAllById(variantOrProductIds)) {
+            resolved.put(variant.getId(), variant);
+        }
+
+        List<Long> productIds = variantOrProductIds.stream().filter(id -> !resolved.containsKey(id)).distinct().sorted().toList();
+        if (productIds.isEmpty()) return resolved;
+
+        for (ProductVariant variant : productVariantRepository.findOldestByProductIdIn(productIds)) {
+            resolved.put(variant.getProduct().getId(), variant);
+        }
+        for (Long productId : productIds) {
+            if (!resolved.containsKey(productId)) resolved.put(productId, createDefaultVariant(productId));
+        }
+        return resolved;
+    }
+
+    private ProductVariant createDefaultVariant(Long productId) {
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("No variant or product found for ID: " + productId));
+
+        List<ProductVariant> created = productVariantRepository.findByProductIdForUpdate(productId);
+        if (!created.isEmpty()) return created.get(0);
+
+        return productVariantRepository.save(ProductVariant.builder()
+                .product(product)
+                .variantName(DEFAULT_VARIANT_NAME)
+                .variantValue(DEFAULT_VARIANT_VALUE)
+                .price(product.getBasePrice())
+                .stockQuantity(DEFAULT_STOCK_QUANTITY)
+                .build());
+    }
+}
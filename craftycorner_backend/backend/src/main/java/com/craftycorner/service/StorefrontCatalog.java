@@ -0,0 +1,118 @@
+package com.craftycorner.service;
+
+import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.event.ProductChangedEvent;
+import com.craftycorner.event.VendorChangedEvent;
+import com.craftycorner.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ready-to-serve storefront catalog: ACTIVE products of APPROVED vendors as DTOs, ordered
+ * by id.
+ * <p>
+ * Readers get the current immutable {@link Snapshot} from an atomic reference, so serving
+ * the catalog costs no database I/O and no copying. Product and vendor changes reload just
+ * the affected products and publish a new snapshot with the next version (copy-on-write);
+ * updates are serialized, readers never block.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorefrontCatalog {
+
+    private final ProductReadService productReadService;
+    private final ProductRepository productRepository;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    /** The current catalog; falls back to the database until the first snapshot is built. */
+    public List<ProductDTO> getProducts() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot.getProducts() : productReadService.getActiveCatalog();
+    }
+
+    /** Version of the current snapshot, or 0 while there is none. */
+    public long getVersion() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot.getVersion() : 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        try {
+            Map<Long, ProductDTO> products = new TreeMap<>();
+            for (ProductDTO product : productReadService.getActiveCatalog()) {
+                products.put(product.getId(), product);
+            }
+            current.set(new Snapshot(getVersion() + 1, products));
+            log.info("Storefront catalog loaded with {} products", products.size());
+        } catch (RuntimeException e) {
+            log.warn("Storefront catalog load failed, listings stay on the database query", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        apply(event.getProductIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVendorChanged(VendorChangedEvent event) {
+        apply(productRepository.findIdsByVendorId(event.getVendorProfileId()));
+    }
+
+    /** Re-reads {@code productIds}; those no longer on the storefront drop out of the snapshot. */
+    private synchronized void apply(Collection<Long> productIds) {
+        Snapshot snapshot = current.get();
+        if (snapshot == null || productIds.isEmpty()) return;
+
+        Map<Long, ProductDTO> reloaded = productReadService.getActiveCatalogByIds(productIds).stream()
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+
+        Map<Long, ProductDTO> products = new TreeMap<>(snapshot.byId);
+        for (Long id : productIds) {
+            ProductDTO product = reloaded.get(id);
+            if (product != null) {
+                products.put(id, product);
+            } else {
+                products.remove(id);
+            }
+        }
+        current.set(new Snapshot(snapshot.getVersion() + 1, products));
+    }
+
+    /** One immutable version of the catalog. */
+    public static final class Snapshot {
+
+        private final long version;
+        private final Map<Long, ProductDTO> byId;
+        private final List<ProductDTO> products;
+
+        private Snapshot(long version, Map<Long, ProductDTO> byId) {
+            this.version = version;
+            this.byId = byId;
+            this.products = List.copyOf(byId.values());
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public List<ProductDTO> getProducts() {
+            return products;
+        }
+    }
+}
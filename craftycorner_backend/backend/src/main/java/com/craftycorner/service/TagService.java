@@ -1,13 +1,17 @@
 package com.craftycorner.service;
 
+import com.craftycorner.event.ProductChangedEvent;
 import com.craftycorner.model.Product;
 import com.craftycorner.model.Tag;
 import com.craftycorner.repository.ProductRepository;
+import com.craftycorner.repository.TagDictionary;
 import com.craftycorner.repository.TagRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -16,10 +20,12 @@ public class TagService {
 
     private final TagRepository tagRepository;
     private final ProductRepository productRepository;
+    private final TagDictionary tagDictionary;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Tag createTag(String name) {
-        return tagRepository.findByName(name)
-                .orElseGet(() -> tagRepository.save(Tag.builder().name(name).build()));
+        return tagRepository.findById(tagDictionary.resolve(name))
+                .orElseThrow(() -> new EntityNotFoundException("Tag not found"));
     }
 
     public List<Tag> getAllTags() {
@@ -36,10 +42,13 @@ public class TagService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
 
-        Tag tag = tagRepository.findByName(tagName)
-                .orElseGet(() -> tagRepository.save(Tag.builder().name(tagName).build()));
+        Tag tag = tagRepository.findById(tagDictionary.resolve(tagName))
+                .orElseThrow(() -> new EntityNotFoundException("Tag not found"));
 
         product.getTags().add(tag);
-        return productRepository.save(product);
+        product.setUpdatedAt(LocalDateTime.now());
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        return saved;
     }
 }
@@ -3,17 +3,21 @@ package com.craftycorner.service;
 import com.craftycorner.dto.vendor.VendorOnboardRequest;
 import com.craftycorner.dto.vendor.VendorProfileResponse;
 import com.craftycorner.dto.vendor.VendorProfileUpdateRequest;
+import com.craftycorner.event.VendorChangedEvent;
 import com.craftycorner.model.*;
+import com.craftycorner.repository.ProductRepository;
 import com.craftycorner.repository.RoleRepository;
 import com.craftycorner.repository.UserRepository;
 import com.craftycorner.repository.VendorProfileRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +26,8 @@ public class VendorService {
     private final VendorProfileRepository vendorProfileRepository;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String ROLE_VENDOR = "ROLE_VENDOR";
 
@@ -101,11 +107,18 @@ public class VendorService {
         VendorProfile vp = vendorProfileRepository.findByUserId(user.getId())
                 .orElseThrow(() -> new RuntimeException("Vendor profile not found for user"));
 
+        // Only the shop name appears in product representations; bio and GSTIN do not
+        boolean renamed = !Objects.equals(vp.getShopName(), req.getShopName());
         vp.setShopName(req.getShopName());
         vp.setBio(req.getBio());
         vp.setGstin(req.getGstin());
 
-        return map(vendorProfileRepository.save(vp));
+        VendorProfile saved = vendorProfileRepository.save(vp);
+        if (renamed) {
+            productRepository.touchByVendorId(saved.getId(), LocalDateTime.now());
+            eventPublisher.publishEvent(new VendorChangedEvent(saved.getId()));
+        }
+        return map(saved);
     }
 
     @Transactional(readOnly = true)
@@ -139,6 +152,8 @@ public class VendorService {
         }
 
         vendorProfileRepository.save(vp);
+        productRepository.touchByVendorId(vp.getId(), LocalDateTime.now());
+        eventPublisher.publishEvent(new VendorChangedEvent(vp.getId()));
         return map(vp);
     }
 
@@ -156,6 +171,8 @@ public class VendorService {
         vp.setApprovedAt(null);
 
         vendorProfileRepository.save(vp);
+        productRepository.touchByVendorId(vp.getId(), LocalDateTime.now());
+        eventPublisher.publishEvent(new VendorChangedEvent(vp.getId()));
         return map(vp);
     }
 }
@@ -24,3 +24,38 @@ ON DUPLICATE KEY UPDATE role_id = newVals.role_id;
 
 
 
+
+
+-- Merge duplicate cart lines into the oldest one, so uk_cart_items_cart_variant can be
+-- added (schema updates run before this script: on a database with duplicates the key
+-- appears on the next start)
+UPDATE cart_items ci
+JOIN (
+  SELECT MIN(id) AS keep_id, SUM(qty) AS qty
+  FROM cart_items
+  GROUP BY cart_id, product_variant_id
+  HAVING COUNT(*) > 1
+) merged ON ci.id = merged.keep_id
+SET ci.qty = merged.qty;
+
+DELETE ci FROM cart_items ci
+JOIN (
+  SELECT cart_id, product_variant_id, MIN(id) AS keep_id
+  FROM cart_items
+  GROUP BY cart_id, product_variant_id
+  HAVING COUNT(*) > 1
+) merged ON ci.cart_id = merged.cart_id
+        AND ci.product_variant_id = merged.product_variant_id
+        AND ci.id <> merged.keep_id;
+
+
+-- Start the pooled id generators above any ids already in use (no-op once they are)
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT * FROM (
+  SELECT 'products' AS sequence_name, COALESCE(MAX(id), 0) + 1 AS next_val FROM products
+  UNION ALL SELECT 'product_images', COALESCE(MAX(id), 0) + 1 FROM product_images
+  UNION ALL SELECT 'tags', COALESCE(MAX(id), 0) + 1 FROM tags
+  UNION ALL SELECT 'order_items', COALESCE(MAX(id), 0) + 1 FROM order_items
+  UNION ALL SELECT 'cart_items', COALESCE(MAX(id), 0) + 1 FROM cart_items
+) AS newVals
+ON DUPLICATE KEY UPDATE next_val = GREATEST(id_generators.next_val, newVals.next_val);
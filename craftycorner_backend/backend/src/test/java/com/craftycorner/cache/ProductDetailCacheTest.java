@@ -0,0 +1,109 @@
+package com.craftycorner.cache;
+
+import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.event.ProductChangedEvent;
+import com.craftycorner.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ProductDetailCacheTest {
+
+    private static final int CALLERS = 500;
+
+    private final ProductDetailCache cache = new ProductDetailCache(mock(ProductRepository.class), 100, 300);
+
+    @Test
+    void concurrentMissesRunOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<ProductDTO>> callers = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                callers.add(pool.submit(() -> {
+                    start.await();
+                    return cache.get(7L, id -> {
+                        loads.incrementAndGet();
+                        sleep(50);
+                        return product(id);
+                    });
+                }));
+            }
+            start.countDown();
+
+            for (Future<ProductDTO> caller : callers) {
+                assertEquals(7L, caller.get(10, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedLoadIsSharedButNotCached() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> cache.get(3L, id -> {
+            throw new RuntimeException("Product not found: " + id);
+        }));
+        assertEquals("Product not found: 3", e.getMessage());
+
+        assertEquals(3L, cache.get(3L, this::product).getId());
+    }
+
+    @Test
+    void batchLoadsOnlyTheMissesInOneCall() {
+        cache.get(1L, this::product);
+        List<List<Long>> loads = new ArrayList<>();
+
+        Map<Long, ProductDTO> found = cache.getAll(List.of(1L, 2L, 3L), ids -> {
+            loads.add(ids);
+            return List.of(product(2L));
+        });
+
+        assertEquals(List.of(List.of(2L, 3L)), loads);
+        assertEquals(Set.of(1L, 2L), found.keySet());
+        assertSame(found.get(2L), cache.getIfPresent(2L));
+    }
+
+    @Test
+    void productChangeDropsTheEntry() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(5L, id -> { loads.incrementAndGet(); return product(id); });
+        cache.get(5L, id -> { loads.incrementAndGet(); return product(id); });
+        assertEquals(1, loads.get());
+
+        cache.onProductChanged(ProductChangedEvent.of(5L));
+        cache.get(5L, id -> { loads.incrementAndGet(); return product(id); });
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().getInvalidations());
+    }
+
+    private ProductDTO product(Long id) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        return dto;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
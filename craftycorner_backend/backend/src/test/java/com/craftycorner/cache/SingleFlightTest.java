@@ -0,0 +1,28 @@
+package com.craftycorner.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void failedLoadIsNotRemembered() {
+        SingleFlight<Long, String> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> flight.load(1L, () -> {
+            loads.incrementAndGet();
+            throw new RuntimeException("Product not found: 1");
+        }));
+        assertEquals("Product not found: 1", e.getMessage());
+
+        assertEquals("ok", flight.load(1L, () -> {
+            loads.incrementAndGet();
+            return "ok";
+        }));
+        assertEquals(2, loads.get());
+    }
+}
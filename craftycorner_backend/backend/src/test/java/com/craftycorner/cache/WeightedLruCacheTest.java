@@ -0,0 +1,62 @@
+package com.craftycorner.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedLruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedByWeight() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>("test", 10);
+        cache.put("a", "A", 4, null, cache.stamp());
+        cache.put("b", "B", 4, null, cache.stamp());
+        cache.get("a");
+        cache.put("c", "C", 4, null, cache.stamp());
+
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals(8, cache.stats().getWeight());
+    }
+
+    @Test
+    void invalidatesOnlyMatchingTagsAndUntaggedEntries() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>("test", 100);
+        cache.put("decor", "1", 1, "decor", cache.stamp());
+        cache.put("knitting", "2", 1, "knitting", cache.stamp());
+        cache.put("all", "3", 1, null, cache.stamp());
+
+        cache.invalidateTags(List.of("decor"));
+
+        assertNull(cache.get("decor"));
+        assertNull(cache.get("all"));
+        assertEquals("2", cache.get("knitting"));
+        assertEquals(2, cache.stats().getInvalidations());
+    }
+
+    @Test
+    void ignoresValuesComputedBeforeAnInvalidation() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>("test", 100);
+        long stamp = cache.stamp();
+        cache.invalidateTags(List.of("decor"));
+        cache.put("decor", "stale", 1, "decor", stamp);
+
+        assertNull(cache.get("decor"));
+    }
+
+    @Test
+    void expiresEntriesAfterTheirTimeToLive() throws InterruptedException {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>("test", 100, Duration.ofMillis(20));
+        cache.put("a", "A", 1, null, cache.stamp());
+        assertEquals("A", cache.get("a"));
+
+        Thread.sleep(40);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.stats().getEntries());
+    }
+}
@@ -0,0 +1,298 @@
+package com.craftycorner.cache;
+
+import com.craftycorner.dto.cart.CartDTO;
+import com.craftycorner.dto.cart.CartItemDTO;
+import com.craftycorner.dto.cart.CartOperation;
+import com.craftycorner.dto.cart.CartOperationType;
+import com.craftycorner.model.IdGenerators;
+import com.craftycorner.model.Product;
+import com.craftycorner.model.ProductVariant;
+import com.craftycorner.model.User;
+import com.craftycorner.repository.*;
+import com.craftycorner.service.CartService;
+import com.craftycorner.service.ProductVariantResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehind;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never",
+        "app.cart.storage=write-behind"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WriteBehindCartStore.class, CartService.class, ProductVariantResolver.class, CartIdLookup.class,
+        CartItemBatchWriter.class, PooledIdAllocator.class, IdGeneratorRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WriteBehindCartStoreTest {
+
+    @Autowired
+    private WriteBehindCartStore store;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartIdLookup cartIdLookup;
+
+    @Autowired
+    private CartItemBatchWriter cartItemBatchWriter;
+
+    @MockitoSpyBean
+    private PooledIdAllocator pooledIdAllocator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void editsReachTheDatabaseOnFlush() {
+        Long cartId = cart("ann@example.com");
+        ProductVariant mug = variant("Mug", "12.50");
+
+        CartDTO cart = cartService.addToCartByEmail("ann@example.com", mug.getId(), 2);
+        assertEquals("Mug", cart.getItems().get(0).getProductName());
+        assertEquals(25.0, cart.getTotalAmount());
+        assertEquals(0, cartItemBatchWriter.findLines(cartId).size());
+
+        store.flush();
+        assertEquals(List.of(2), quantities(cartId));
+
+        Long itemId = cart.getItems().get(0).getId();
+        cartService.updateCartItemQuantity("ann@example.com", itemId, 5);
+        cartService.removeFromCartByEmail("ann@example.com", itemId);
+        cartService.addToCartByEmail("ann@example.com", mug.getId(), 1);
+        store.flush();
+
+        List<CartItemBatchWriter.Line> lines = cartItemBatchWriter.findLines(cartId);
+        assertEquals(1, lines.size());
+        assertNotEquals(itemId, lines.get(0).itemId());
+        assertEquals(1, lines.get(0).quantity());
+    }
+
+    @Test
+    void crashLosesOnlyTheEditsSinceTheLastFlush() {
+        Long cartId = cart("bo@example.com");
+        ProductVariant mug = variant("Mug", "12.50");
+        ProductVariant bowl = variant("Bowl", "9.00");
+        ProductVariant vase = variant("Vase", "40.00");
+
+        Long mugLine = store.apply(cartId, cart -> cart.add(() -> pooledIdAllocator.next(IdGenerators.CART_ITEMS),
+                mug.getId(), 1, mug.getPrice())).orElseThrow().lines().get(0).itemId();
+        store.apply(cartId, cart -> cart.add(() -> pooledIdAllocator.next(IdGenerators.CART_ITEMS),
+                bowl.getId(), 2, bowl.getPrice()));
+        store.flush();
+
+        store.apply(cartId, cart -> cart.setQuantity(mugLine, 5));
+        store.apply(cartId, cart -> cart.add(() -> pooledIdAllocator.next(IdGenerators.CART_ITEMS),
+                vase.getId(), 1, vase.getPrice()));
+
+        // Crash before the next flush: a new store starts from what is in the database
+        assertEquals(Map.of(mug.getId(), 1, bowl.getId(), 2), quantitiesByVariant(restart(), cartId));
+
+        store.flush();
+        assertEquals(Map.of(mug.getId(), 5, bowl.getId(), 2, vase.getId(), 1), quantitiesByVariant(restart(), cartId));
+    }
+
+    @Test
+    void checkoutWritesTheCartAndLeavesItToTheDatabase() {
+        Long cartId = cart("cy@example.com");
+        Long userId = userRepository.findByEmail("cy@example.com").orElseThrow().getId();
+        ProductVariant bowl = variant("Bowl", "9.00");
+        Long itemId = pooledIdAllocator.next(IdGenerators.CART_ITEMS);
+        store.apply(cartId, cart -> cart.add(() -> itemId, bowl.getId(), 3, bowl.getPrice()));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            store.beginCheckout(userId);
+            assertEquals(List.of(3), quantities(cartId));
+            assertTrue(store.read(cartId).isEmpty());
+            jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ?", cartId);
+        });
+
+        assertEquals(List.of(), store.read(cartId).orElseThrow().lines());
+    }
+
+    @Test
+    void checkoutWriteDoesNotHoldUpCartsOfTheSameStripe() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CartItemBatchWriter slowWriter = new CartItemBatchWriter(jdbcTemplate, pooledIdAllocator) {
+            @Override
+            public void saveLines(Long cartId, Collection<Line> lines) {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.saveLines(cartId, lines);
+            }
+        };
+        WriteBehindCartStore slow = new WriteBehindCartStore(jdbcTemplate, slowWriter, transactionManager,
+                "write-behind", 100);
+        ProductVariant tray = variant("Tray", "15.00");
+        Long cartId = cart("ivy@example.com");
+        Long userId = userRepository.findByEmail("ivy@example.com").orElseThrow().getId();
+        Long neighbour = null;
+        for (int i = 0; neighbour == null; i++) {
+            Long candidate = cart("ivy" + i + "@example.com");
+            if (WriteBehindCartStore.stripeIndex(candidate) == WriteBehindCartStore.stripeIndex(cartId)) neighbour = candidate;
+        }
+        Long neighbourId = neighbour;
+        for (Long id : List.of(cartId, neighbourId)) {
+            slow.apply(id, cart -> cart.add(() -> pooledIdAllocator.next(IdGenerators.CART_ITEMS), tray.getId(), 1, tray.getPrice()));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> checkout = pool.submit(() -> slow.beginCheckout(userId));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+            Future<WriteBehindCartStore.Snapshot> edit = pool.submit(() -> slow.apply(neighbourId, cart ->
+                    cart.add(() -> pooledIdAllocator.next(IdGenerators.CART_ITEMS), tray.getId(), 2, tray.getPrice()))
+                    .orElseThrow());
+            assertEquals(3, edit.get(2, TimeUnit.SECONDS).lines().get(0).quantity());
+
+            release.countDown();
+            checkout.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+        assertEquals(List.of(1), quantities(cartId));
+    }
+
+    @Test
+    void flushEvictsLeastRecentlyUsedCarts() {
+        WriteBehindCartStore small = new WriteBehindCartStore(jdbcTemplate, cartItemBatchWriter, transactionManager,
+                "write-behind", 2);
+        ProductVariant scarf = variant("Scarf", "30.00");
+        List<Long> cartIds = List.of(cart("d1@example.com"), cart("d2@example.com"), cart("d3@example.com"));
+
+        for (Long cartId : cartIds) {
+            Long itemId = pooledIdAllocator.next(IdGenerators.CART_ITEMS);
+            small.apply(cartId, cart -> cart.add(() -> itemId, scarf.getId(), 1, scarf.getPrice()));
+        }
+        assertEquals(List.of(), quantities(cartIds.get(0)));
+
+        small.flush();
+        jdbcTemplate.update("UPDATE cart_items SET qty = 9 WHERE product_variant_id = ?", scarf.getId());
+
+        // Evicted carts are read again from the database; the most recent one stays in memory
+        assertEquals(9, small.read(cartIds.get(0)).orElseThrow().lines().get(0).quantity());
+        assertEquals(9, small.read(cartIds.get(1)).orElseThrow().lines().get(0).quantity());
+        assertEquals(1, small.read(cartIds.get(2)).orElseThrow().lines().get(0).quantity());
+    }
+
+    @Test
+    void itemIdsAreOnlyTakenForNewLines() {
+        cart("gil@example.com");
+        ProductVariant mug = variant("Mug", "12.50");
+        ProductVariant bowl = variant("Bowl", "9.00");
+        cartService.addToCartByEmail("gil@example.com", mug.getId(), 1);
+        clearInvocations(pooledIdAllocator);
+
+        cartService.addToCartByEmail("gil@example.com", mug.getId(), 1);
+        CartDTO cart = cartService.applyBatchByEmail("gil@example.com", List.of(
+                add(mug.getId(), 1), add(bowl.getId(), 1), add(bowl.getId(), 2)));
+
+        verify(pooledIdAllocator, times(1)).next(IdGenerators.CART_ITEMS);
+        assertEquals(List.of(3, 3), cart.getItems().stream().map(CartItemDTO::getQuantity).toList());
+    }
+
+    @Test
+    void linesOfAnotherCartCannotBeChanged() {
+        cart("eve@example.com");
+        cart("fay@example.com");
+        ProductVariant vase = variant("Vase", "40.00");
+        Long itemId = cartService.addToCartByEmail("fay@example.com", vase.getId(), 1).getItems().get(0).getId();
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> cartService.updateCartItemQuantity("eve@example.com", itemId, 50));
+        assertEquals("Cart item not found", e.getMessage());
+        cartService.removeFromCartByEmail("eve@example.com", itemId);
+
+        RuntimeException batch = assertThrows(RuntimeException.class, () -> cartService.applyBatchByEmail(
+                "eve@example.com", List.of(add(vase.getId(), 1),
+                        CartOperation.builder().type(CartOperationType.REMOVE).itemId(itemId).build())));
+        assertEquals("Cart item not found: " + itemId, batch.getMessage());
+        assertEquals(List.of(), cartService.getCartByEmail("eve@example.com").getItems());
+
+        cartService.updateCartItemQuantity("fay@example.com", itemId, 2);
+        assertEquals(2, cartService.getCartByEmail("fay@example.com").getItems().get(0).getQuantity());
+    }
+
+    private WriteBehindCartStore restart() {
+        return new WriteBehindCartStore(jdbcTemplate, cartItemBatchWriter, transactionManager, "write-behind", 100);
+    }
+
+    private static Map<Long, Integer> quantitiesByVariant(WriteBehindCartStore store, Long cartId) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CartItemBatchWriter.Line line : store.read(cartId).orElseThrow().lines()) {
+            quantities.put(line.variantId(), line.quantity());
+        }
+        return quantities;
+    }
+
+    private static CartOperation add(Long variantId, int quantity) {
+        return CartOperation.builder().type(CartOperationType.ADD).variantId(variantId).quantity(quantity).build();
+    }
+
+    private List<Integer> quantities(Long cartId) {
+        return cartItemBatchWriter.findLines(cartId).stream().map(CartItemBatchWriter.Line::quantity).toList();
+    }
+
+    private Long cart(String email) {
+        userRepository.save(User.builder().name(email).email(email).password("x").build());
+        return cartIdLookup.getOrCreate(email);
+    }
+
+    private ProductVariant variant(String title, String price) {
+        Product product = productRepository.save(Product.builder().title(title).basePrice(new BigDecimal(price)).build());
+        return productVariantRepository.save(ProductVariant.builder()
+                .product(product)
+                .variantName("Default")
+                .variantValue("Standard")
+                .price(product.getBasePrice())
+                .stockQuantity(10)
+                .build());
+    }
+}
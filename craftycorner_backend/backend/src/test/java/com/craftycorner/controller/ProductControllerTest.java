@@ -0,0 +1,171 @@
+package com.craftycorner.controller;
+
+import com.craftycorner.cache.EncodedResponseCache;
+import com.craftycorner.dto.product.ProductBatchResponse;
+import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.service.ProductImportService;
+import com.craftycorner.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ProductControllerTest {
+
+    private final ProductService productService = Mockito.mock(ProductService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(
+                productService, mock(ProductImportService.class), objectMapper,
+                new EncodedResponseCache(objectMapper, 1_000_000)
+        )).build();
+    }
+
+    @Test
+    void productRevalidationSkipsLoadingTheProduct() throws Exception {
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 3, 1, 12, 0);
+        when(productService.getProductVersion(7L)).thenReturn(updatedAt);
+        when(productService.getProductById(7L)).thenReturn(product(7L));
+
+        String etag = mockMvc.perform(get("/api/products/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, public"))
+                .andExpect(jsonPath("$.id").value(7))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products/7").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        verify(productService, times(1)).getProductById(7L);
+
+        when(productService.getProductVersion(7L)).thenReturn(updatedAt.plusSeconds(1));
+        mockMvc.perform(get("/api/products/7").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void catalogIsTaggedWithTheSnapshotVersion() throws Exception {
+        when(productService.getCatalogVersion()).thenReturn(3L);
+        when(productService.getAllActiveProducts()).thenReturn(List.of(product(1L)));
+
+        String etag = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(productService, times(1)).getAllActiveProducts();
+
+        when(productService.getCatalogVersion()).thenReturn(4L);
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void untaggedWithoutASnapshot() throws Exception {
+        when(productService.getCatalogVersion()).thenReturn(0L);
+        when(productService.getAllActiveProducts()).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void servesTheEncodedBodyUntilTheVersionChanges() throws Exception {
+        when(productService.getProductVersion(7L)).thenReturn(LocalDateTime.of(2025, 3, 1, 12, 0));
+        when(productService.getProductById(7L)).thenReturn(product(7L));
+
+        String first = mockMvc.perform(get("/api/products/7"))
+                .andExpect(header().string("Content-Type", "application/json"))
+                .andReturn().getResponse().getContentAsString();
+        String second = mockMvc.perform(get("/api/products/7"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, second);
+        verify(productService, times(1)).getProductById(7L);
+
+        when(productService.getProductVersion(7L)).thenReturn(LocalDateTime.of(2025, 3, 1, 12, 1));
+        mockMvc.perform(get("/api/products/7")).andExpect(status().isOk());
+        verify(productService, times(2)).getProductById(7L);
+    }
+
+    @Test
+    void gzipClientsGetTheCompressedVariant() throws Exception {
+        ProductDTO large = product(9L);
+        large.setDescription("hand thrown stoneware ".repeat(100));
+        when(productService.getProductVersion(9L)).thenReturn(LocalDateTime.of(2025, 3, 1, 12, 0));
+        when(productService.getProductById(9L)).thenReturn(large);
+
+        var plain = mockMvc.perform(get("/api/products/9"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn().getResponse();
+        var gzipped = mockMvc.perform(get("/api/products/9").header("Accept-Encoding", "br, gzip"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn().getResponse();
+
+        assertNotEquals(plain.getHeader("ETag"), gzipped.getHeader("ETag"));
+        assertTrue(gzipped.getContentAsByteArray().length < plain.getContentAsByteArray().length);
+        assertEquals(plain.getContentAsString(), gunzip(gzipped.getContentAsByteArray()));
+
+        mockMvc.perform(get("/api/products/9")
+                        .header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", gzipped.getHeader("ETag")))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void idsParameterSelectsTheMultiGet() throws Exception {
+        when(productService.getProductsByIds(List.of(3L, 1L, 8L)))
+                .thenReturn(new ProductBatchResponse(List.of(product(3L), product(1L)), List.of(8L)));
+
+        mockMvc.perform(get("/api/products").param("ids", "3,1,8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").value(3))
+                .andExpect(jsonPath("$.products[1].id").value(1))
+                .andExpect(jsonPath("$.missingIds[0]").value(8));
+        verify(productService, never()).getAllActiveProducts();
+    }
+
+    @Test
+    void gzipRefusedWithZeroQuality() {
+        assertTrue(ConditionalResponses.acceptsGzip("gzip, deflate"));
+        assertTrue(ConditionalResponses.acceptsGzip("*;q=0.5"));
+        assertFalse(ConditionalResponses.acceptsGzip("gzip;q=0, deflate"));
+        assertFalse(ConditionalResponses.acceptsGzip("identity"));
+        assertFalse(ConditionalResponses.acceptsGzip(null));
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static ProductDTO product(Long id) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        return dto;
+    }
+}
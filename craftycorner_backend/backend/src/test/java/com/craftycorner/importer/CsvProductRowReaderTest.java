@@ -0,0 +1,46 @@
+package com.craftycorner.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvProductRowReaderTest {
+
+    @Test
+    void readsQuotedFieldsAndTracksLines() throws IOException {
+        String csv = "Title,basePrice,categoryId,tags,description\r\n"
+                + "Macrame hanger,45.00,1,boho|cotton,plain\r\n"
+                + "\"Mug, \"\"large\"\"\",12,2,,\"two\nlines\"\n"
+                + "\n"
+                + "Quilt,80,1,quilt,\n";
+        try (CsvProductRowReader reader = new CsvProductRowReader(new StringReader(csv))) {
+            ProductImportRow first = reader.next();
+            assertEquals(2, first.getLine());
+            assertEquals("Macrame hanger", first.getTitle());
+            assertEquals("45.00", first.getBasePrice());
+            assertEquals(List.of("boho", "cotton"), first.getTags());
+
+            ProductImportRow second = reader.next();
+            assertEquals(3, second.getLine());
+            assertEquals("Mug, \"large\"", second.getTitle());
+            assertEquals("two\nlines", second.getDescription());
+            assertEquals(List.of(), second.getTags());
+
+            ProductImportRow third = reader.next();
+            assertEquals(6, third.getLine());
+            assertEquals("Quilt", third.getTitle());
+            assertNull(third.getStatus());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void rejectsHeaderWithoutTitle() {
+        assertThrows(IOException.class, () -> new CsvProductRowReader(new StringReader("name,price\nx,1\n")));
+    }
+}
@@ -0,0 +1,212 @@
+package com.craftycorner.repository;
+
+import com.craftycorner.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Insert throughput for the two write-heavy paths: placing a 50-item order and persisting
+ * a 10k-product import through JPA. Both run twice, in separate contexts: once with the
+ * pooled table ids and JDBC batching from application.properties, and once as before them,
+ * with IDENTITY ids (overridden in {@code benchmark/identity-ids-orm.xml}) and no batching.
+ * Prints elapsed time and how many JDBC statements were prepared, side by side. In-memory H2
+ * has no network round trip per statement, so the statement count is what carries over to MySQL.
+ * Run with {@code mvn test -Dtest=InsertBatchingBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InsertBatchingBenchmarkTest {
+
+    private static final Map<String, Map<String, String>> RESULTS = new TreeMap<>();
+
+    @AfterAll
+    static void printSideBySide() {
+        RESULTS.forEach((workload, byConfiguration) -> {
+            System.out.println(workload);
+            byConfiguration.forEach((configuration, line) -> System.out.printf("  %-24s %s%n", configuration, line));
+        });
+    }
+
+    @Nested
+    @DataJpaTest(properties = {
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "spring.jpa.properties.hibernate.generate_statistics=true",
+            "spring.jpa.show-sql=false",
+            "spring.sql.init.mode=never",
+            "spring.jpa.mapping-resources=benchmark/identity-ids-orm.xml",
+            "spring.jpa.properties.hibernate.jdbc.batch_size=0"
+    })
+    class IdentityUnbatched extends Workloads {
+        IdentityUnbatched() {
+            super("identity, no batching");
+        }
+    }
+
+    @Nested
+    @DataJpaTest(properties = {
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "spring.jpa.properties.hibernate.generate_statistics=true",
+            "spring.jpa.show-sql=false",
+            "spring.sql.init.mode=never"
+    })
+    class PooledBatched extends Workloads {
+        PooledBatched() {
+            super("pooled ids, batched");
+        }
+    }
+
+    abstract static class Workloads {
+
+        private static final int ORDER_ITEMS = 50;
+        private static final int ORDER_ROUNDS = 200;
+        private static final int PRODUCTS = 10_000;
+        private static final int FLUSH_EVERY = 500;
+
+        private final String configuration;
+
+        @Autowired
+        private EntityManager entityManager;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        private Statistics statistics;
+        private User user;
+        private ProductVariant variant;
+        private Category category;
+        private VendorProfile vendor;
+
+        Workloads(String configuration) {
+            this.configuration = configuration;
+        }
+
+        /**
+         * Runs a workload in one transaction that is rolled back afterwards, like a
+         * {@code @DataJpaTest} method (nested test classes do not get that transaction).
+         */
+        private void inRolledBackTransaction(Runnable workload) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                setUp();
+                workload.run();
+                status.setRollbackOnly();
+            });
+        }
+
+        private void setUp() {
+            user = User.builder().name("buyer").email("buyer@example.com").password("x").build();
+            entityManager.persist(user);
+            vendor = VendorProfile.builder().shopName("Maker Studio").onboardingStatus(OnboardingStatus.APPROVED).user(user).build();
+            entityManager.persist(vendor);
+            category = Category.builder().name("Decor").build();
+            entityManager.persist(category);
+            Product product = Product.builder().title("Mug").basePrice(BigDecimal.TEN).category(category).vendor(vendor)
+                    .tags(new HashSet<>()).images(new HashSet<>()).build();
+            entityManager.persist(product);
+            variant = ProductVariant.builder().variantName("size").variantValue("L").price(BigDecimal.TEN).product(product).build();
+            entityManager.persist(variant);
+            entityManager.flush();
+            entityManager.clear();
+
+            statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        }
+
+        @Test
+        void orderWithFiftyItems() {
+            inRolledBackTransaction(this::placeOrders);
+        }
+
+        @Test
+        void tenThousandProductImport() {
+            inRolledBackTransaction(this::importProducts);
+        }
+
+        private void placeOrders() {
+            statistics.clear();
+
+            long start = System.nanoTime();
+            for (int round = 0; round < ORDER_ROUNDS; round++) {
+                // Each order is placed in its own persistence context, as in OrderService
+                ProductVariant variantRef = entityManager.getReference(ProductVariant.class, variant.getId());
+                User userRef = entityManager.getReference(User.class, user.getId());
+                Order order = new Order();
+                order.setUser(userRef);
+                order.setStatus(OrderStatus.PENDING);
+                order.setTotalAmount(BigDecimal.valueOf(ORDER_ITEMS * 10L));
+                for (int i = 0; i < ORDER_ITEMS; i++) {
+                    OrderItem item = new OrderItem();
+                    item.setOrder(order);
+                    item.setProductVariant(variantRef);
+                    item.setQuantity(1);
+                    item.setPrice(BigDecimal.TEN);
+                    item.setTotalPrice(BigDecimal.TEN);
+                    order.getItems().add(item);
+                }
+                entityManager.persist(order);
+                entityManager.flush();
+                entityManager.clear();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            report("50-item order", ORDER_ROUNDS * (ORDER_ITEMS + 1), elapsed);
+            assertTrue(statistics.getEntityInsertCount() >= ORDER_ROUNDS * (ORDER_ITEMS + 1L));
+        }
+
+        private void importProducts() {
+            Category categoryRef = entityManager.getReference(Category.class, category.getId());
+            VendorProfile vendorRef = entityManager.getReference(VendorProfile.class, vendor.getId());
+            statistics.clear();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < PRODUCTS; i++) {
+                entityManager.persist(Product.builder()
+                        .title("Imported " + i)
+                        .basePrice(BigDecimal.valueOf(i))
+                        .status(ProductStatus.DRAFT)
+                        .category(categoryRef)
+                        .vendor(vendorRef)
+                        .tags(new HashSet<>())
+                        .images(new HashSet<>())
+                        .build());
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    categoryRef = entityManager.getReference(Category.class, category.getId());
+                    vendorRef = entityManager.getReference(VendorProfile.class, vendor.getId());
+                }
+            }
+            entityManager.flush();
+            long elapsed = System.nanoTime() - start;
+
+            report("10k-product import", PRODUCTS, elapsed);
+            assertTrue(statistics.getEntityInsertCount() >= PRODUCTS);
+        }
+
+        private void report(String workload, int rows, long elapsedNanos) {
+            String line = String.format("%6d rows  %8.1f ms  %9.0f rows/s  %6d statements prepared",
+                    rows, elapsedNanos / 1e6, rows / (elapsedNanos / 1e9), statistics.getPrepareStatementCount());
+            System.out.printf("%-20s %-24s %s%n", workload, configuration, line);
+            synchronized (RESULTS) {
+                RESULTS.computeIfAbsent(workload, w -> new TreeMap<>()).put(configuration, line);
+            }
+        }
+    }
+}
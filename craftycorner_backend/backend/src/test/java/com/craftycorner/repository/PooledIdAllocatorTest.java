@@ -0,0 +1,82 @@
+package com.craftycorner.repository;
+
+import com.craftycorner.model.IdGenerators;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PooledIdAllocatorTest {
+
+    private static final String SEGMENT = IdGenerators.CART_ITEMS;
+
+    private final IdGeneratorRepository idGeneratorRepository = mock(IdGeneratorRepository.class);
+    private final PooledIdAllocator allocator = new PooledIdAllocator(idGeneratorRepository);
+    private final AtomicLong generator = new AtomicLong(1);
+
+    @Test
+    void idsAreUniqueUnderContention() throws Exception {
+        when(idGeneratorRepository.reserve(anyString(), anyInt()))
+                .thenAnswer(invocation -> generator.getAndAdd(invocation.<Integer>getArgument(1)));
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                callers.add(pool.submit(() -> {
+                    for (int j = 0; j < 1_000; j++) ids.add(allocator.next(SEGMENT));
+                }));
+            }
+            for (Future<?> caller : callers) caller.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(8_000, ids.size());
+    }
+
+    @Test
+    void slowReserveDoesNotHoldUpOtherCallers() throws Exception {
+        CountDownLatch reserving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(idGeneratorRepository.reserve(anyString(), anyInt())).thenAnswer(invocation -> {
+            if (generator.get() > IdGenerators.ALLOCATION_SIZE && reserving.getCount() > 0) {
+                reserving.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return generator.getAndAdd(invocation.<Integer>getArgument(1));
+        });
+        for (int i = 0; i < IdGenerators.ALLOCATION_SIZE; i++) allocator.next(SEGMENT);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> slow = pool.submit((Callable<Long>) () -> allocator.next(SEGMENT));
+            assertTrue(reserving.await(5, TimeUnit.SECONDS));
+
+            Future<Long> other = pool.submit(() -> allocator.next(SEGMENT));
+            long id = other.get(1, TimeUnit.SECONDS);
+
+            release.countDown();
+            assertNotEquals(id, (long) slow.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.craftycorner.repository;
+
+import com.craftycorner.model.Tag;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tags;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TagDictionary.class, IdGeneratorRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TagDictionaryTest {
+
+    @Autowired
+    private TagDictionary tagDictionary;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void resolvesExistingAndCreatesMissingTagsInOrder() {
+        Tag boho = tagRepository.save(Tag.builder().name("boho").build());
+
+        Map<String, Long> ids = tagDictionary.resolve(List.of("linen", " boho ", "", "linen", "cotton"));
+
+        assertEquals(List.of("linen", "boho", "cotton"), List.copyOf(ids.keySet()));
+        assertEquals(boho.getId(), ids.get("boho"));
+        assertEquals("cotton", tagRepository.findById(ids.get("cotton")).orElseThrow().getName());
+        assertEquals(ids, tagDictionary.resolve(List.of("linen", "boho", "cotton")));
+    }
+
+    @Test
+    void concurrentWritersAgreeOnOneRowPerName() throws Exception {
+        List<String> names = List.of("wool", "felt", "yarn", "knit", "crochet");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, Long>>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                // Separate dictionaries share nothing in memory, like separate app instances
+                TagDictionary dictionary = i % 2 == 0 ? tagDictionary : new TagDictionary(
+                        jdbcTemplate, new IdGeneratorRepository(jdbcTemplate),
+                        new JpaTransactionManager(entityManagerFactory),
+                        event -> { });
+                results.add(pool.submit((Callable<Map<String, Long>>) () -> dictionary.resolve(names)));
+            }
+
+            Map<String, Long> first = results.get(0).get();
+            for (Future<Map<String, Long>> result : results) {
+                assertEquals(first, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(names.size(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tags WHERE name IN ('wool', 'felt', 'yarn', 'knit', 'crochet')", Integer.class));
+    }
+}
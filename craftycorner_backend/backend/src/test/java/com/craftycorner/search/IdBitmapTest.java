@@ -0,0 +1,55 @@
+package com.craftycorner.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdBitmapTest {
+
+    @Test
+    void matchesBitSetAcrossSparseAndDenseContainers() {
+        Random random = new Random(42);
+        IdBitmap left = new IdBitmap();
+        IdBitmap right = new IdBitmap();
+        BitSet leftBits = new BitSet();
+        BitSet rightBits = new BitSet();
+
+        // dense first group (bitmap container), sparse groups further out (array containers)
+        for (int i = 0; i < 20_000; i++) {
+            int a = i < 10_000 ? random.nextInt(65_536) : random.nextInt(2_000_000);
+            int b = i < 10_000 ? random.nextInt(65_536) : random.nextInt(2_000_000);
+            left.add(a);
+            leftBits.set(a);
+            right.add(b);
+            rightBits.set(b);
+        }
+        for (int i = 0; i < 8_000; i++) {
+            int a = random.nextInt(65_536);
+            left.remove(a);
+            leftBits.clear(a);
+        }
+
+        BitSet both = (BitSet) leftBits.clone();
+        both.and(rightBits);
+
+        assertEquals(leftBits.cardinality(), left.cardinality());
+        assertEquals(both.cardinality(), left.andCardinality(right));
+        assertEquals(both.cardinality(), right.andCardinality(left));
+        for (int id = leftBits.nextSetBit(0); id >= 0; id = leftBits.nextSetBit(id + 1)) {
+            assertTrue(left.contains(id));
+        }
+    }
+
+    @Test
+    void removingLastIdEmptiesBitmap() {
+        IdBitmap bitmap = new IdBitmap();
+        bitmap.add(70_000);
+        bitmap.remove(70_000);
+
+        assertTrue(bitmap.isEmpty());
+        assertFalse(bitmap.contains(70_000));
+    }
+}
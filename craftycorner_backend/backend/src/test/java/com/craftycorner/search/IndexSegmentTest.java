@@ -0,0 +1,77 @@
+package com.craftycorner.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexSegmentTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsDocumentsThroughMappedFile() throws Exception {
+        SearchDocument crochet = SearchDocument.builder()
+                .id(7L)
+                .title("Crochet blanket")
+                .description("Soft wool, hand made")
+                .categoryId(3L)
+                .categoryName("Knitting")
+                .vendorName("Yarn & Co")
+                .basePrice(new BigDecimal("120.50"))
+                .createdAt(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000))
+                .tags(List.of("wool", "baby"))
+                .imageUrls(List.of("/uploads/1.jpg"))
+                .terms(Set.of("crochet", "blanket", "soft", "wool", "hand", "made", "knitting", "yarn", "co", "baby"))
+                .build();
+        SearchDocument bare = SearchDocument.builder()
+                .id(9L)
+                .title("Mystery box")
+                .tags(List.of())
+                .imageUrls(List.of())
+                .terms(Set.of("mystery", "box"))
+                .build();
+        LocalDateTime highWaterMark = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+        Path file = directory.resolve("test.seg");
+        IndexSegment.write(file, List.of(crochet, bare), highWaterMark);
+        IndexSegment segment = IndexSegment.open(file);
+
+        assertEquals(highWaterMark, segment.getHighWaterMark());
+        SearchDocument read = segment.getDocuments().get(0);
+        assertEquals(7L, read.getId());
+        assertEquals("Soft wool, hand made", read.getDescription());
+        assertEquals(3L, read.getCategoryId());
+        assertEquals(new BigDecimal("120.50"), read.getBasePrice());
+        assertEquals(crochet.getCreatedAt(), read.getCreatedAt());
+        assertEquals(List.of("wool", "baby"), read.getTags());
+        assertEquals(crochet.getTerms(), read.getTerms());
+
+        SearchDocument empty = segment.getDocuments().get(1);
+        assertNull(empty.getBasePrice());
+        assertNull(empty.getCreatedAt());
+        assertNull(empty.getCategoryName());
+        assertEquals(Set.of("mystery", "box"), empty.getTerms());
+    }
+
+    @Test
+    void storeKeepsOnlyTheNewestSegment() {
+        SearchSegmentStore store = new SearchSegmentStore(directory.toString());
+        SearchDocument document = SearchDocument.builder()
+                .id(1L).title("Candle").tags(List.of()).imageUrls(List.of()).terms(Set.of("candle")).build();
+
+        store.write(List.of(), LocalDateTime.of(2024, 1, 1, 0, 0));
+        store.write(List.of(document), LocalDateTime.of(2024, 2, 1, 0, 0));
+
+        IndexSegment latest = store.openLatest().orElseThrow();
+        assertEquals(LocalDateTime.of(2024, 2, 1, 0, 0), latest.getHighWaterMark());
+        assertEquals(1, latest.getDocuments().size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.craftycorner.search;
+
+import com.craftycorner.model.Product;
+import com.craftycorner.model.ProductStatus;
+import com.craftycorner.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Index and SQL search order missing prices the same way, so their cursors are interchangeable. */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cursorpaths;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductCursorPathsTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        for (String price : new String[]{null, "5.00", "0.00", "10.00", null, "5.00"}) {
+            Product product = productRepository.save(Product.builder()
+                    .title("Candle")
+                    .status(ProductStatus.ACTIVE)
+                    .createdAt(LocalDateTime.now())
+                    .basePrice(price != null ? new BigDecimal(price) : null)
+                    .build());
+            index.index(SearchDocument.fromEntity(product));
+        }
+    }
+
+    @Test
+    void cursorsCrossBetweenIndexAndSqlWithNullPrices() {
+        for (SearchSort sort : List.of(SearchSort.PRICE_ASC, SearchSort.PRICE_DESC)) {
+            List<Long> sqlOrder = sqlPage(sort, null, 100);
+            assertEquals(6, sqlOrder.size());
+            assertEquals(sqlOrder, index.search(SearchQuery.builder().sort(sort).limit(100).build())
+                    .getHits().stream().map(SearchDocument::getId).toList());
+
+            // One row per page, alternating paths: index cursor into SQL, SQL cursor into the index
+            List<Long> walked = new ArrayList<>();
+            ProductCursor cursor = null;
+            for (int page = 0; page < sqlOrder.size(); page++) {
+                if (page % 2 == 0) {
+                    SearchResult result = index.search(SearchQuery.builder().sort(sort).limit(1).after(cursor).build());
+                    walked.add(result.getHits().get(0).getId());
+                    cursor = result.getNext();
+                } else {
+                    Long id = sqlPage(sort, cursor, 1).get(0);
+                    Product product = productRepository.findById(id).orElseThrow();
+                    walked.add(id);
+                    cursor = new ProductCursor(sort, id, ProductCursor.priceKey(product.getBasePrice()), product.getCreatedAt());
+                }
+                cursor = ProductCursor.decode(cursor.encode(), sort);
+            }
+
+            assertEquals(sqlOrder, walked, sort.getParam());
+        }
+    }
+
+    private List<Long> sqlPage(SearchSort sort, ProductCursor after, int limit) {
+        return productRepository.searchProductIdsNative(null, null, null, null, sort.getParam(),
+                after != null ? ProductCursor.priceKey(after.getPrice()) : null,
+                after != null ? after.getCreatedAt() : null,
+                after != null ? after.getId() : null,
+                limit, 0);
+    }
+}
@@ -0,0 +1,96 @@
+package com.craftycorner.search;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rough latency comparison of search modes over a synthetic catalog.
+ * Run with {@code mvn test -Dtest=ProductSearchBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSearchBenchmarkTest {
+
+    private static final int PRODUCTS = 50_000;
+    private static final int ROUNDS = 200;
+
+    private static final List<String> WORDS = List.of(
+            "crochet", "macrame", "knitted", "ceramic", "pottery", "leather", "wallet", "candle",
+            "soy", "beeswax", "quilt", "embroidered", "linen", "wooden", "spoon", "basket", "woven",
+            "necklace", "beaded", "earrings", "scarf", "wool", "blanket", "mug", "planter", "hanger");
+
+    private static final List<SearchDocument> DOCUMENTS = new ArrayList<>();
+    private static ProductSearchIndex index;
+
+    @BeforeAll
+    static void buildIndex() {
+        Random random = new Random(42);
+        index = new ProductSearchIndex();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            String title = WORDS.get(random.nextInt(WORDS.size())) + " " + WORDS.get(random.nextInt(WORDS.size()))
+                    + " " + Long.toString(id, 36);
+            Set<String> terms = new HashSet<>(SearchTokenizer.tokenize(title));
+            SearchDocument document = SearchDocument.builder()
+                    .id(id)
+                    .title(title)
+                    .categoryName("Category " + (id % 24))
+                    .basePrice(BigDecimal.valueOf(random.nextInt(10_000)))
+                    .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id))
+                    .tags(List.of())
+                    .imageUrls(List.of())
+                    .terms(terms)
+                    .fieldStats(FieldStats.of(title, null, List.of()))
+                    .build();
+            DOCUMENTS.add(document);
+            index.index(document);
+        }
+    }
+
+    @Test
+    void fuzzyVersusExactKeywordSearch() {
+        long exact = time(() -> index.search(SearchQuery.builder().keyword("crochet hanger").limit(20).build()));
+        long fuzzy = time(() -> index.search(SearchQuery.builder().keyword("crochette hangr").fuzzy(true).limit(20).build()));
+
+        System.out.printf("exact: %d us/query, fuzzy: %d us/query%n", exact / 1000, fuzzy / 1000);
+        assertTrue(index.search(SearchQuery.builder().keyword("crochette hangr").fuzzy(true).limit(20).build()).getTotal() > 0);
+    }
+
+    @Test
+    void shardedThroughputByCoreCount() {
+        SearchQuery query = SearchQuery.builder().keyword("wool").sort(SearchSort.RELEVANCE).limit(20).build();
+        System.out.printf("single index: %d queries/s%n", 1_000_000_000L / time(() -> index.search(query)));
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                ShardedSearchIndex sharded = new ShardedSearchIndex(pool);
+                DOCUMENTS.forEach(sharded::index);
+                long nanos = time(() -> sharded.search(query));
+                System.out.printf("%d cores: %d queries/s%n", parallelism, 1_000_000_000L / nanos);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    static long time(Supplier<SearchResult> search) {
+        for (int i = 0; i < ROUNDS / 4; i++) search.get();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) search.get();
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+}
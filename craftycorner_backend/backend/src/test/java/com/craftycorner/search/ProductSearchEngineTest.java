@@ -0,0 +1,105 @@
+package com.craftycorner.search;
+
+import com.craftycorner.event.VendorChangedEvent;
+import com.craftycorner.repository.ProductRepository;
+import com.craftycorner.repository.TagRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchEngineTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final SearchDocumentLoader documentLoader = mock(SearchDocumentLoader.class);
+    private final List<Object> events = new ArrayList<>();
+    private final List<Long> generationsAtPublish = new ArrayList<>();
+    private final ApplicationEventPublisher eventPublisher = event -> {
+        events.add(event);
+        generationsAtPublish.add(this.engine.getGeneration());
+    };
+
+    private final ProductSearchEngine engine = new ProductSearchEngine(productRepository, documentLoader,
+            new ProductSuggester(mock(TagRepository.class)), mock(SearchSegmentStore.class), eventPublisher);
+
+    @Test
+    void laterRefreshOfAProductIsAppliedLast() throws Exception {
+        CountDownLatch firstLoading = new CountDownLatch(1);
+        CountDownLatch secondLoading = new CountDownLatch(1);
+        when(documentLoader.load(any())).thenAnswer(invocation -> {
+            if (firstLoading.getCount() > 0) {
+                firstLoading.countDown();
+                // Without ordering the second refresh loads and applies meanwhile
+                secondLoading.await(300, TimeUnit.MILLISECONDS);
+                return List.of(doc(1L, "Old title"));
+            }
+            secondLoading.countDown();
+            return List.of(doc(1L, "New title"));
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = pool.submit(() -> engine.refresh(List.of(1L)));
+            assertTrue(firstLoading.await(5, TimeUnit.SECONDS));
+            Future<?> second = pool.submit(() -> engine.refresh(List.of(1L)));
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals("New title", engine.search(SearchQuery.builder().limit(10).build()).getHits().get(0).getTitle());
+    }
+
+    @Test
+    void cachedResultsAreInvalidatedBeforeTheGenerationMoves() {
+        when(documentLoader.load(any())).thenReturn(List.of(doc(1L, "Macrame hanger")));
+        long before = engine.getGeneration();
+
+        engine.refresh(List.of(1L));
+
+        assertEquals(List.of(before), generationsAtPublish);
+        assertEquals(before + 1, engine.getGeneration());
+    }
+
+    @Test
+    void vendorChangesRefreshTheirProducts() {
+        when(documentLoader.load(any())).thenReturn(List.of(doc(1L, "Macrame hanger"), doc(2L, "Macrame mat")));
+        engine.refresh(List.of(1L, 2L));
+
+        when(productRepository.findIdsByVendorId(7L)).thenReturn(List.of(1L, 2L));
+        when(documentLoader.load(List.of(1L, 2L))).thenReturn(List.of(doc(1L, "Macrame hanger")));
+        engine.onVendorChanged(new VendorChangedEvent(7L));
+
+        assertEquals(List.of(1L), engine.search(SearchQuery.builder().keyword("macrame").limit(10).build())
+                .getHits().stream().map(SearchDocument::getId).toList());
+    }
+
+    private static SearchDocument doc(Long id, String title) {
+        return SearchDocument.builder()
+                .id(id)
+                .title(title)
+                .categoryName("Decor")
+                .basePrice(new BigDecimal("10.00"))
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .tags(List.of())
+                .imageUrls(List.of())
+                .terms(Set.copyOf(SearchTokenizer.tokenize(title)))
+                .fieldStats(FieldStats.of(title, null, List.of()))
+                .build();
+    }
+}
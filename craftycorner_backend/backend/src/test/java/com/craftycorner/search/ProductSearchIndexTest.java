@@ -0,0 +1,167 @@
+package com.craftycorner.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.index(doc(1L, "Crochet baby blanket", "Knitting", "120.00", List.of("wool")));
+        index.index(doc(2L, "Macrame wall hanging", "Decor", "45.50", List.of("cotton", "boho")));
+        index.index(doc(3L, "Crochet plant hanger", "Decor", "30.00", List.of("cotton")));
+    }
+
+    @Test
+    void matchesTokenPrefixesAcrossFields() {
+        assertEquals(List.of(3L, 1L), ids(search("croch", null, SearchSort.NEWEST)));
+        assertEquals(List.of(3L, 2L), ids(search("cotton", null, SearchSort.NEWEST)));
+        assertEquals(List.of(3L), ids(search("crochet hang", null, SearchSort.NEWEST)));
+    }
+
+    @Test
+    void fuzzyModeToleratesMisspellings() {
+        SearchQuery.SearchQueryBuilder query = SearchQuery.builder().keyword("crochette hangr").limit(10);
+
+        assertEquals(0, index.search(query.build()).getTotal());
+        assertEquals(List.of(3L), ids(index.search(query.fuzzy(true).build())));
+        assertEquals(List.of(2L), ids(index.search(SearchQuery.builder().keyword("macarme").fuzzy(true).limit(10).build())));
+    }
+
+    @Test
+    void relevanceRanksByBm25AndPagesByScore() {
+        index.index(doc(4L, "Hanging crochet basket with crochet handles", "Decor", "60.00", List.of("crochet")));
+        SearchQuery.SearchQueryBuilder query = SearchQuery.builder().keyword("crochet").sort(SearchSort.RELEVANCE);
+
+        SearchResult all = index.search(query.limit(10).build());
+        assertEquals(4L, all.getHits().get(0).getId());
+        assertEquals(3, all.getTotal());
+
+        SearchResult first = index.search(query.limit(1).build());
+        SearchResult rest = index.search(query.limit(10).after(first.getNext()).build());
+        assertEquals(List.of(4L), ids(first));
+        assertEquals(ids(all).subList(1, 3), ids(rest));
+        assertNull(rest.getNext());
+    }
+
+    @Test
+    void filtersByCategoryAndSortsByPrice() {
+        assertEquals(List.of(3L, 2L), ids(search(null, "decor", SearchSort.PRICE_ASC)));
+        assertEquals(List.of(2L, 3L), ids(search("hang", "Decor", SearchSort.PRICE_DESC)));
+    }
+
+    @Test
+    void countsFacetsOverTheWholeHitSet() {
+        SearchResult result = index.search(SearchQuery.builder().keyword("hang").limit(1).build());
+
+        assertEquals(Map.of("Decor", 2), result.getFacets().get("category"));
+        assertEquals(Map.of("cotton", 2, "boho", 1), result.getFacets().get("tag"));
+        assertEquals(Map.of("0-500", 2), result.getFacets().get("price"));
+    }
+
+    @Test
+    void facetsCountProductIdsBeyondIntRange() {
+        long big = Integer.MAX_VALUE + 10L;
+        index.index(doc(big, "Crochet coasters", "Decor", "12.00", List.of("cotton")));
+        index.index(doc(100_000_000_000L, "Crochet scarf", "Knitting", "55.00", List.of("wool")));
+
+        SearchResult result = search("crochet", null, SearchSort.NEWEST);
+        assertEquals(4, result.getTotal());
+        assertEquals(Map.of("Decor", 2, "Knitting", 2), result.getFacets().get("category"));
+        assertEquals(Map.of("cotton", 2, "wool", 2), result.getFacets().get("tag"));
+
+        index.remove(big);
+        index.remove(3L);
+        index.index(doc(big + 1, "Crochet pouch", "Accessories", "20.00", List.of()));
+        assertEquals(Map.of("Knitting", 2, "Accessories", 1),
+                search("crochet", null, SearchSort.NEWEST).getFacets().get("category"));
+    }
+
+    @Test
+    void reindexAndRemoveKeepPostingsInSync() {
+        index.index(doc(1L, "Leather wallet", "Accessories", "80.00", List.of()));
+        assertTrue(search("crochet", null, SearchSort.NEWEST).getHits().stream().noneMatch(d -> d.getId() == 1L));
+        assertEquals(List.of(1L), ids(search("wallet", null, SearchSort.NEWEST)));
+
+        index.remove(1L);
+        assertEquals(0, search("wallet", null, SearchSort.NEWEST).getTotal());
+        assertFalse(search(null, null, SearchSort.NEWEST).getFacets().get("category").containsKey("Accessories"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void pagesWithoutLosingTotal() {
+        SearchResult page = index.search(SearchQuery.builder()
+                .sort(SearchSort.PRICE_ASC)
+                .minPrice(new BigDecimal("40"))
+                .offset(1)
+                .limit(1)
+                .build());
+
+        assertEquals(2, page.getTotal());
+        assertEquals(List.of(1L), ids(page));
+    }
+
+    @Test
+    void keysetCursorContinuesAfterLastHitDespiteInserts() {
+        SearchResult first = index.search(SearchQuery.builder().sort(SearchSort.PRICE_ASC).limit(1).build());
+        SearchDocument last = first.getHits().get(0);
+        assertTrue(first.isHasMore());
+
+        String token = new ProductCursor(SearchSort.PRICE_ASC, last.getId(), last.getBasePrice(), last.getCreatedAt()).encode();
+        index.index(doc(4L, "Cheap bookmark", "Stationery", "5.00", List.of()));
+
+        SearchResult second = index.search(SearchQuery.builder()
+                .sort(SearchSort.PRICE_ASC)
+                .limit(1)
+                .after(ProductCursor.decode(token, SearchSort.PRICE_ASC))
+                .build());
+
+        assertEquals(List.of(2L), ids(second));
+        assertThrows(RuntimeException.class, () -> ProductCursor.decode(token, SearchSort.NEWEST));
+    }
+
+    private SearchResult search(String keyword, String category, SearchSort sort) {
+        return index.search(SearchQuery.builder()
+                .keyword(keyword)
+                .category(category)
+                .sort(sort)
+                .offset(0)
+                .limit(10)
+                .build());
+    }
+
+    private static List<Long> ids(SearchResult result) {
+        return result.getHits().stream().map(SearchDocument::getId).toList();
+    }
+
+    private static SearchDocument doc(Long id, String title, String category, String price, List<String> tags) {
+        Set<String> terms = new HashSet<>(SearchTokenizer.tokenize(title));
+        terms.addAll(SearchTokenizer.tokenize(category));
+        tags.forEach(t -> terms.addAll(SearchTokenizer.tokenize(t)));
+
+        return SearchDocument.builder()
+                .id(id)
+                .title(title)
+                .categoryName(category)
+                .basePrice(new BigDecimal(price))
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(id))
+                .tags(tags)
+                .imageUrls(List.of())
+                .terms(terms)
+                .fieldStats(FieldStats.of(title, null, tags))
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.craftycorner.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedSearchIndexTest {
+
+    private static final List<String> WORDS = List.of("crochet", "macrame", "wool", "candle", "basket", "linen");
+
+    @Test
+    void mergedShardsMatchASingleIndex() {
+        ShardedSearchIndex sharded = new ShardedSearchIndex(ForkJoinPool.commonPool());
+        ProductSearchIndex single = new ProductSearchIndex();
+        Random random = new Random(7);
+        for (long id = 1; id <= 12_000; id++) {
+            String title = WORDS.get(random.nextInt(WORDS.size())) + " " + WORDS.get(random.nextInt(WORDS.size()));
+            SearchDocument document = doc(id, title, "Category " + random.nextInt(8), random.nextInt(2000));
+            sharded.index(document);
+            single.index(document);
+        }
+
+        for (SearchSort sort : SearchSort.values()) {
+            SearchQuery query = SearchQuery.builder().keyword("wool").sort(sort).offset(20).limit(20).build();
+            SearchResult expected = single.search(query);
+            SearchResult actual = sharded.search(query);
+
+            assertEquals(ids(expected), ids(actual), sort.getParam());
+            assertEquals(expected.getTotal(), actual.getTotal());
+            assertEquals(expected.isHasMore(), actual.isHasMore());
+            assertEquals(expected.getFacets(), actual.getFacets());
+        }
+    }
+
+    @Test
+    void categoryChangeMovesDocumentBetweenShards() {
+        ShardedSearchIndex index = new ShardedSearchIndex(ForkJoinPool.commonPool());
+        index.index(doc(1L, "Wool scarf", "Knitting", 40));
+        SearchDocument previous = index.index(doc(1L, "Wool scarf", "Accessories", 40));
+
+        assertEquals("Knitting", previous.getCategoryName());
+        assertEquals(0, index.search(SearchQuery.builder().category("knitting").limit(10).build()).getTotal());
+        assertEquals(1, index.search(SearchQuery.builder().category("accessories").limit(10).build()).getTotal());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void productChangingCategoryIsSeenExactlyOnce() throws Exception {
+        ShardedSearchIndex sharded = new ShardedSearchIndex(ForkJoinPool.commonPool());
+        sharded.index(doc(1L, "wool scarf", "Category 0", 10));
+
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 20_000; i++) sharded.index(doc(1L, "wool scarf", "Category " + (i % 4), 10));
+        });
+        writer.start();
+        try {
+            SearchQuery query = SearchQuery.builder().keyword("wool").limit(10).build();
+            while (writer.isAlive()) {
+                SearchResult result = sharded.search(query);
+                assertEquals(1, result.getTotal());
+                assertEquals(List.of(1L), ids(result));
+                assertEquals(1, result.getFacets().get("category").values().stream().mapToInt(Integer::intValue).sum());
+            }
+        } finally {
+            writer.join();
+        }
+    }
+
+    private static List<Long> ids(SearchResult result) {
+        return result.getHits().stream().map(SearchDocument::getId).toList();
+    }
+
+    private static SearchDocument doc(long id, String title, String category, int price) {
+        Set<String> terms = new HashSet<>(SearchTokenizer.tokenize(title));
+        terms.addAll(SearchTokenizer.tokenize(category));
+
+        return SearchDocument.builder()
+                .id(id)
+                .title(title)
+                .categoryName(category)
+                .basePrice(BigDecimal.valueOf(price))
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id % 500))
+                .tags(List.of())
+                .imageUrls(List.of())
+                .terms(terms)
+                .fieldStats(FieldStats.of(title, null, List.of()))
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.craftycorner.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestTrieTest {
+
+    @Test
+    void suggestsHeaviestCompletionsForPrefix() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.adjust("Wool Scarf", 1);
+        trie.adjust("Wooden Spoon", 3);
+        trie.adjust("Woven Basket", 2);
+        trie.adjust("Candle", 5);
+
+        assertEquals(List.of("Wooden Spoon", "Woven Basket", "Wool Scarf"), trie.suggest("wo", 10));
+        assertEquals(List.of("Wooden Spoon", "Wool Scarf"), trie.suggest("WOO", 10));
+        assertEquals(List.of("Wooden Spoon"), trie.suggest("wo", 1));
+        assertTrue(trie.suggest("x", 10).isEmpty());
+    }
+
+    @Test
+    void weightChangesInvalidateCachedResults() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.adjust("Wool Scarf", 1);
+        trie.adjust("Wooden Spoon", 2);
+        assertEquals(List.of("Wooden Spoon", "Wool Scarf"), trie.suggest("woo", 10));
+
+        trie.adjust("Wool Scarf", 5);
+        assertEquals(List.of("Wool Scarf", "Wooden Spoon"), trie.suggest("woo", 10));
+
+        trie.adjust("Wooden Spoon", -2);
+        assertEquals(List.of("Wool Scarf"), trie.suggest("woo", 10));
+    }
+}
@@ -0,0 +1,102 @@
+package com.craftycorner.service;
+
+import com.craftycorner.dto.admin.DashboardSummaryDTO;
+import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never",
+        "app.admin.dashboard.cache-ttl-ms=60000"
+})
+@Import({AdminDashboardService.class, ProductReadService.class})
+class AdminDashboardServiceTest {
+
+    @Autowired
+    private AdminDashboardService adminDashboardService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder().name("maker").email("maker@example.com").password("x").build();
+        entityManager.persist(user);
+        VendorProfile vendor = VendorProfile.builder()
+                .shopName("Maker Studio")
+                .onboardingStatus(OnboardingStatus.APPROVED)
+                .user(user)
+                .build();
+        entityManager.persist(vendor);
+
+        ProductStatus[] statuses = {ProductStatus.ACTIVE, ProductStatus.ACTIVE, ProductStatus.ACTIVE, ProductStatus.DRAFT,
+                ProductStatus.DRAFT, ProductStatus.INACTIVE, ProductStatus.ACTIVE, ProductStatus.ACTIVE};
+        for (int i = 0; i < statuses.length; i++) {
+            entityManager.persist(Product.builder()
+                    .title("Product " + i)
+                    .basePrice(BigDecimal.TEN)
+                    .status(statuses[i])
+                    .createdAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(i))
+                    .vendor(vendor)
+                    .tags(new HashSet<>())
+                    .images(new HashSet<>())
+                    .build());
+        }
+
+        for (OrderStatus status : List.of(OrderStatus.PENDING, OrderStatus.PAID, OrderStatus.PAID)) {
+            Order order = new Order();
+            order.setUser(user);
+            order.setStatus(status);
+            order.setTotalAmount(BigDecimal.ONE);
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void summarizesWithAggregateQueriesAndReusesTheResult() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        DashboardSummaryDTO summary = adminDashboardService.getSummary();
+
+        assertEquals(8, summary.getTotalProducts());
+        assertEquals(3, summary.getPendingProducts());
+        assertEquals(5L, summary.getProductsByStatus().get(ProductStatus.ACTIVE));
+        assertEquals(3, summary.getTotalOrders());
+        assertEquals(2L, summary.getOrdersByStatus().get(OrderStatus.PAID));
+        assertEquals(0L, summary.getOrdersByStatus().get(OrderStatus.SHIPPED));
+        assertEquals(List.of("Product 7", "Product 6", "Product 5", "Product 4", "Product 3"),
+                summary.getRecentProducts().stream().map(ProductDTO::getTitle).toList());
+        assertEquals(3, summary.getRecentOrders().size());
+        assertEquals("maker", summary.getRecentOrders().get(0).getCustomerName());
+
+        // two counts, recent product rows + their tags + images, recent orders
+        assertEquals(6, statistics.getPrepareStatementCount());
+
+        assertSame(summary, adminDashboardService.getSummary());
+        assertEquals(6, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,289 @@
+package com.craftycorner.service;
+
+import com.craftycorner.cache.WriteBehindCartStore;
+import com.craftycorner.dto.cart.CartDTO;
+import com.craftycorner.dto.cart.CartOperation;
+import com.craftycorner.dto.cart.CartOperationType;
+import com.craftycorner.model.IdGenerators;
+import com.craftycorner.model.Product;
+import com.craftycorner.model.ProductImage;
+import com.craftycorner.model.ProductVariant;
+import com.craftycorner.model.User;
+import com.craftycorner.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CartService.class, ProductVariantResolver.class, CartIdLookup.class, PooledIdAllocator.class,
+        CartItemBatchWriter.class, IdGeneratorRepository.class, WriteBehindCartStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartServiceTest {
+
+    private static final int CLICKS = 16;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoSpyBean
+    private PooledIdAllocator pooledIdAllocator;
+
+    @Test
+    void addingTheSameVariantAgainIncrementsItsLine() {
+        userRepository.save(User.builder().name("Ann").email("ann@example.com").password("x").build());
+        ProductVariant variant = variant("Mug", "12.50");
+
+        cartService.addToCartByEmail("ann@example.com", variant.getId(), 2);
+        CartDTO cart = cartService.addToCartByEmail("ann@example.com", variant.getId(), 3);
+
+        assertEquals(1, cart.getItems().size());
+        assertEquals(5, cart.getItems().get(0).getQuantity());
+        assertEquals(62.5, cart.getTotalAmount());
+        assertEquals(cart.getId(), cartService.getCartByEmail("ann@example.com").getId());
+    }
+
+    @Test
+    void concurrentClicksOnAnEmptyAccountAllCount() throws Exception {
+        userRepository.save(User.builder().name("Bo").email("bo@example.com").password("x").build());
+        ProductVariant variant = variant("Scarf", "30.00");
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CartDTO>> clicks = new ArrayList<>();
+            for (int i = 0; i < CLICKS; i++) {
+                clicks.add(pool.submit((Callable<CartDTO>) () -> {
+                    start.await();
+                    return cartService.addToCartByEmail("bo@example.com", variant.getId(), 1);
+                }));
+            }
+            start.countDown();
+            for (Future<CartDTO> click : clicks) click.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM carts c JOIN users u ON u.id = c.user_id WHERE u.email = 'bo@example.com'",
+                Integer.class));
+        assertEquals(List.of(CLICKS), jdbcTemplate.queryForList(
+                "SELECT qty FROM cart_items WHERE product_variant_id = ?", Integer.class, variant.getId()));
+    }
+
+    @Test
+    void batchAppliesRunsInOrderAndReturnsOneCart() {
+        userRepository.save(User.builder().name("Cy").email("cy@example.com").password("x").build());
+        List<ProductVariant> variants = new ArrayList<>();
+        for (int i = 0; i < 30; i++) variants.add(variant("Item " + i, "2.00"));
+        Product bare = productRepository.save(Product.builder().title("Bare").basePrice(new BigDecimal("5.00")).build());
+
+        List<CartOperation> restore = new ArrayList<>();
+        for (ProductVariant variant : variants) restore.add(add(variant.getId(), 1));
+        restore.add(add(variants.get(0).getId(), 2));
+        restore.add(add(bare.getId(), 1));
+        CartDTO restored = cartService.applyBatchByEmail("cy@example.com", restore);
+
+        assertEquals(31, restored.getItems().size());
+        assertEquals(3, quantityOf(restored, variants.get(0).getId()));
+
+        Long first = itemIdOf(restored, variants.get(0).getId());
+        Long second = itemIdOf(restored, variants.get(1).getId());
+        CartDTO edited = cartService.applyBatchByEmail("cy@example.com", List.of(
+                CartOperation.builder().type(CartOperationType.UPDATE).itemId(first).quantity(7).build(),
+                CartOperation.builder().type(CartOperationType.REMOVE).itemId(second).build(),
+                add(variants.get(1).getId(), 4)
+        ));
+
+        assertEquals(31, edited.getItems().size());
+        assertEquals(7, quantityOf(edited, variants.get(0).getId()));
+        assertEquals(4, quantityOf(edited, variants.get(1).getId()));
+        assertNotEquals(second, itemIdOf(edited, variants.get(1).getId()));
+    }
+
+    @Test
+    void invalidBatchChangesNothing() {
+        userRepository.save(User.builder().name("Di").email("di@example.com").password("x").build());
+        ProductVariant variant = variant("Bowl", "9.00");
+
+        assertThrows(RuntimeException.class, () -> cartService.applyBatchByEmail("di@example.com", List.of(
+                add(variant.getId(), 1),
+                add(variant.getId(), 0)
+        )));
+        assertEquals(0, cartService.getCartByEmail("di@example.com").getItems().size());
+    }
+
+    @Test
+    void cartIsReadWithOneStatement() {
+        userRepository.save(User.builder().name("Ed").email("ed@example.com").password("x").build());
+        List<CartOperation> operations = new ArrayList<>();
+        List<ProductVariant> variants = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ProductVariant variant = variant("Item " + i, "3.00");
+            productImageRepository.save(ProductImage.builder()
+                    .product(variant.getProduct()).imageUrl("first-" + i).primaryImage(false).build());
+            productImageRepository.save(ProductImage.builder()
+                    .product(variant.getProduct()).imageUrl("primary-" + i).primaryImage(i % 2 == 0).build());
+            variants.add(variant);
+            operations.add(add(variant.getId(), 2));
+        }
+        cartService.applyBatchByEmail("ed@example.com", operations);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CartDTO cart = cartService.getCartByEmail("ed@example.com");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(20, cart.getItems().size());
+        assertEquals(120.0, cart.getTotalAmount());
+        for (int i = 0; i < 20; i++) {
+            Long variantId = variants.get(i).getId();
+            assertEquals(i % 2 == 0 ? "primary-" + i : "first-" + i, cart.getItems().stream()
+                    .filter(item -> item.getProductVariantId().equals(variantId))
+                    .findFirst().orElseThrow().getImageUrl());
+        }
+    }
+
+    @Test
+    void emptyCartIsReadWithOneStatement() {
+        userRepository.save(User.builder().name("Flo").email("flo@example.com").password("x").build());
+        Long cartId = cartService.getCartByEmail("flo@example.com").getId();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CartDTO cart = cartService.getCartByEmail("flo@example.com");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(cartId, cart.getId());
+        assertEquals(userRepository.findByEmail("flo@example.com").orElseThrow().getId(), cart.getUserId());
+        assertEquals(List.of(), cart.getItems());
+        assertEquals(0.0, cart.getTotalAmount());
+    }
+
+    @Test
+    void itemIdsAreOnlyTakenForNewLines() {
+        userRepository.save(User.builder().name("Ike").email("ike@example.com").password("x").build());
+        ProductVariant mug = variant("Mug", "12.50");
+        ProductVariant bowl = variant("Bowl", "9.00");
+        cartService.addToCartByEmail("ike@example.com", mug.getId(), 1);
+        clearInvocations(pooledIdAllocator);
+
+        cartService.addToCartByEmail("ike@example.com", mug.getId(), 1);
+        CartDTO cart = cartService.applyBatchByEmail("ike@example.com", List.of(
+                add(mug.getId(), 1), add(bowl.getId(), 1), add(bowl.getId(), 2)));
+
+        verify(pooledIdAllocator, times(1)).next(IdGenerators.CART_ITEMS);
+        assertEquals(3, quantityOf(cart, mug.getId()));
+        assertEquals(3, quantityOf(cart, bowl.getId()));
+    }
+
+    @Test
+    void linesOfAnotherCartCannotBeChanged() {
+        userRepository.save(User.builder().name("Gus").email("gus@example.com").password("x").build());
+        userRepository.save(User.builder().name("Hal").email("hal@example.com").password("x").build());
+        ProductVariant variant = variant("Tray", "15.00");
+        Long itemId = cartService.addToCartByEmail("hal@example.com", variant.getId(), 1).getItems().get(0).getId();
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> cartService.updateCartItemQuantity("gus@example.com", itemId, 50));
+        assertEquals("Cart item not found", e.getMessage());
+        cartService.removeFromCartByEmail("gus@example.com", itemId);
+        assertEquals(List.of(1), jdbcTemplate.queryForList("SELECT qty FROM cart_items WHERE id = ?", Integer.class, itemId));
+
+        cartService.updateCartItemQuantity("hal@example.com", itemId, 2);
+        assertEquals(2, cartService.getCartByEmail("hal@example.com").getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void batchNamingAnotherCartsLineChangesNothing() {
+        userRepository.save(User.builder().name("Jo").email("jo@example.com").password("x").build());
+        userRepository.save(User.builder().name("Kit").email("kit@example.com").password("x").build());
+        ProductVariant lamp = variant("Lamp", "20.00");
+        ProductVariant rug = variant("Rug", "50.00");
+        Long own = cartService.addToCartByEmail("jo@example.com", lamp.getId(), 1).getItems().get(0).getId();
+        Long foreign = cartService.addToCartByEmail("kit@example.com", lamp.getId(), 1).getItems().get(0).getId();
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> cartService.applyBatchByEmail("jo@example.com", List.of(
+                add(rug.getId(), 1),
+                CartOperation.builder().type(CartOperationType.UPDATE).itemId(own).quantity(4).build(),
+                CartOperation.builder().type(CartOperationType.REMOVE).itemId(foreign).build()
+        )));
+
+        assertEquals("Cart item not found: " + foreign, e.getMessage());
+        CartDTO cart = cartService.getCartByEmail("jo@example.com");
+        assertEquals(1, cart.getItems().size());
+        assertEquals(1, cart.getItems().get(0).getQuantity());
+    }
+
+    private static CartOperation add(Long variantId, int quantity) {
+        return CartOperation.builder().type(CartOperationType.ADD).variantId(variantId).quantity(quantity).build();
+    }
+
+    private static int quantityOf(CartDTO cart, Long variantId) {
+        return cart.getItems().stream().filter(i -> i.getProductVariantId().equals(variantId)).findFirst().orElseThrow().getQuantity();
+    }
+
+    private static Long itemIdOf(CartDTO cart, Long variantId) {
+        return cart.getItems().stream().filter(i -> i.getProductVariantId().equals(variantId)).findFirst().orElseThrow().getId();
+    }
+
+    private ProductVariant variant(String title, String price) {
+        Product product = productRepository.save(Product.builder().title(title).basePrice(new BigDecimal(price)).build());
+        return productVariantRepository.save(ProductVariant.builder()
+                .product(product)
+                .variantName("Default")
+                .variantValue("Standard")
+                .price(product.getBasePrice())
+                .stockQuantity(10)
+                .build());
+    }
+}
@@ -0,0 +1,130 @@
+package com.craftycorner.service;
+
+import com.craftycorner.dto.product.ProductImportStatus;
+import com.craftycorner.importer.ImportFormat;
+import com.craftycorner.model.*;
+import com.craftycorner.repository.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import;MODE=MySQL;IGNORECASE=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never",
+        "app.products.import.chunk-size=100"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductImportService.class, IdGeneratorRepository.class, TagDictionary.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductImportServiceTest {
+
+    private static final int ROWS = 250;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VendorProfileRepository vendorProfileRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Category category;
+
+    @BeforeAll
+    void setUp() {
+        // Committed up front: chunks and tag creation run in their own transactions.
+        // IGNORECASE matches tag names the way MySQL's default collation does.
+        User user = userRepository.save(User.builder().name("maker").email("maker@example.com").password("x").build());
+        vendorProfileRepository.save(VendorProfile.builder()
+                .shopName("Maker Studio")
+                .onboardingStatus(OnboardingStatus.APPROVED)
+                .user(user)
+                .build());
+        category = categoryRepository.save(Category.builder().name("Decor").build());
+        tagRepository.save(Tag.builder().name("boho").build());
+    }
+
+    @Test
+    void importsValidRowsInChunksAndReportsBadOnes() throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            ndjson.append("{\"title\":\"Hanger ").append(i).append("\",\"basePrice\":").append(10 + i)
+                    .append(",\"categoryId\":").append(category.getId())
+                    .append(",\"tags\":[\"boho\",\"tag").append(i % 3).append("\"]}\n");
+        }
+        ndjson.append("{\"title\":\"\",\"basePrice\":5,\"categoryId\":").append(category.getId()).append("}\n");
+        ndjson.append("{not json\n");
+        ndjson.append("{\"title\":\"Lost\",\"basePrice\":5,\"categoryId\":999999}\n");
+
+        List<ProductImportStatus> statuses = new ArrayList<>();
+        productImportService.importProducts("maker@example.com",
+                ImportFormat.NDJSON.open(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), new ObjectMapper()),
+                statuses::add);
+
+        List<ProductImportStatus> errors = statuses.stream().filter(s -> s.getType().equals("error")).toList();
+        assertEquals(List.of(251L, 252L, 253L), errors.stream().map(ProductImportStatus::getLine).toList());
+        assertEquals(3, statuses.stream().filter(s -> s.getType().equals("progress")).count());
+
+        ProductImportStatus done = statuses.get(statuses.size() - 1);
+        assertEquals("done", done.getType());
+        assertEquals(ROWS + 3, done.getRowsRead());
+        assertEquals(ROWS, done.getImported());
+        assertEquals(3, done.getFailed());
+
+        assertEquals(ROWS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM products WHERE title LIKE 'Hanger %'", Integer.class));
+        assertEquals(4, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tags WHERE name = 'boho' OR name LIKE 'tag_'", Integer.class));
+        assertEquals(ROWS * 2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM product_tags pt JOIN products p ON p.id = pt.product_id WHERE p.title LIKE 'Hanger %'",
+                Integer.class));
+    }
+
+    @Test
+    void linksTagsDifferingOnlyInCaseOnce() throws IOException {
+        String ndjson = "{\"title\":\"Scarf\",\"basePrice\":25,\"categoryId\":" + category.getId()
+                + ",\"tags\":[\"Wool\",\"wool\",\"BOHO\",\"boho\"]}\n";
+
+        List<ProductImportStatus> statuses = new ArrayList<>();
+        productImportService.importProducts("maker@example.com",
+                ImportFormat.NDJSON.open(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), new ObjectMapper()),
+                statuses::add);
+
+        ProductImportStatus done = statuses.get(statuses.size() - 1);
+        assertEquals(1, done.getImported());
+        assertEquals(0, done.getFailed());
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM product_tags pt JOIN products p ON p.id = pt.product_id WHERE p.title = 'Scarf'",
+                Integer.class));
+    }
+}
@@ -0,0 +1,120 @@
+package com.craftycorner.service;
+
+import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never"
+})
+@Import(ProductReadService.class)
+class ProductReadServiceTest {
+
+    private static final int PRODUCTS = 25;
+
+    @Autowired
+    private ProductReadService productReadService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder().name("maker").email("maker@example.com").password("x").build();
+        entityManager.persist(user);
+        VendorProfile vendor = VendorProfile.builder()
+                .shopName("Maker Studio")
+                .onboardingStatus(OnboardingStatus.APPROVED)
+                .user(user)
+                .build();
+        entityManager.persist(vendor);
+        Category category = Category.builder().name("Decor").build();
+        entityManager.persist(category);
+        Tag boho = Tag.builder().name("boho").build();
+        Tag cotton = Tag.builder().name("cotton").build();
+        entityManager.persist(boho);
+        entityManager.persist(cotton);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = Product.builder()
+                    .title("Macrame hanger " + i)
+                    .basePrice(BigDecimal.valueOf(100 + i))
+                    .status(ProductStatus.ACTIVE)
+                    .category(category)
+                    .vendor(vendor)
+                    .tags(new HashSet<>(Set.of(boho, cotton)))
+                    .images(new HashSet<>())
+                    .build();
+            entityManager.persist(product);
+
+            for (int j = 0; j < 2; j++) {
+                ProductImage image = new ProductImage();
+                image.setProduct(product);
+                image.setImageUrl("/uploads/" + i + "_" + j + ".jpg");
+                entityManager.persist(image);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void catalogListingRunsAFixedNumberOfStatements() {
+        List<ProductDTO> products = productReadService.getActiveCatalog();
+
+        assertEquals(PRODUCTS, products.size());
+        assertEquals(List.of("boho", "cotton"), products.get(0).getTags().stream().sorted().toList());
+        assertEquals(2, products.get(0).getImageUrls().size());
+        assertEquals("Maker Studio", products.get(0).getVendorName());
+        assertEquals("Decor", products.get(0).getCategoryName());
+
+        // products, tags, images: independent of the number of products
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void lookupByIdsKeepsRequestedOrder() {
+        List<Long> ids = productReadService.getAll().stream().map(ProductDTO::getId).toList();
+        statistics.clear();
+
+        List<Long> reversed = new ArrayList<>(ids);
+        Collections.reverse(reversed);
+        assertEquals(reversed, productReadService.getByIds(reversed).stream().map(ProductDTO::getId).toList());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void lastProductsKeepListingOrder() {
+        List<Long> ids = productReadService.getAll().stream().map(ProductDTO::getId).toList();
+
+        assertEquals(ids.subList(ids.size() - 5, ids.size()),
+                productReadService.getLast(5).stream().map(ProductDTO::getId).toList());
+    }
+}
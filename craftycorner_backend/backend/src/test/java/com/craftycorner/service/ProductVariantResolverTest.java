@@ -0,0 +1,128 @@
+package com.craftycorner.service;
+
+import com.craftycorner.model.Product;
+import com.craftycorner.model.ProductVariant;
+import com.craftycorner.repository.ProductRepository;
+import com.craftycorner.repository.ProductVariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@Import(ProductVariantResolver.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductVariantResolverTest {
+
+    @Autowired
+    private ProductVariantResolver resolver;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        // Variant and product ids share the request parameter, so leftovers could shadow a product id
+        productVariantRepository.deleteAll();
+    }
+
+    @Test
+    void acceptsVariantIdsAndProductIds() {
+        Product product = productRepository.save(Product.builder().title("Mug").basePrice(new BigDecimal("12.00")).build());
+        ProductVariant large = productVariantRepository.save(variant(product, "Large"));
+        productVariantRepository.save(variant(product, "Small"));
+
+        assertEquals(large.getId(), resolver.resolve(large.getId()).getId());
+        assertEquals(large.getId(), resolver.resolve(product.getId()).getId());
+        assertEquals(2, productVariantRepository.findByProductId(product.getId()).size());
+    }
+
+    @Test
+    void unknownIdIsRejected() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> resolver.resolve(987654L));
+        assertEquals("No variant or product found for ID: 987654", e.getMessage());
+    }
+
+    @Test
+    void concurrentFirstAddsCreateOneDefaultVariant() throws Exception {
+        Product product = productRepository.save(Product.builder().title("Scarf").basePrice(new BigDecimal("30.00")).build());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                callers.add(pool.submit((Callable<Long>) () -> {
+                    start.await();
+                    return transaction.execute(status -> resolver.resolve(product.getId()).getId());
+                }));
+            }
+            start.countDown();
+
+            Long first = callers.get(0).get(30, TimeUnit.SECONDS);
+            for (Future<Long> caller : callers) {
+                assertEquals(first, caller.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<ProductVariant> variants = productVariantRepository.findByProductId(product.getId());
+        assertEquals(1, variants.size());
+        assertEquals("Default", variants.get(0).getVariantName());
+        assertEquals(0, new BigDecimal("30.00").compareTo(variants.get(0).getPrice()));
+    }
+
+    @Test
+    void defaultVariantsAreCreatedInProductIdOrder() {
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            productIds.add(productRepository.save(Product.builder().title("Tray " + i).basePrice(BigDecimal.TEN).build()).getId());
+        }
+
+        // Each creation locks its product row; one order for every batch rules out deadlocks
+        Map<Long, ProductVariant> resolved = new TransactionTemplate(transactionManager).execute(status ->
+                resolver.resolveAll(List.of(productIds.get(2), productIds.get(0), productIds.get(1))));
+
+        List<Long> variantIds = productIds.stream().map(id -> resolved.get(id).getId()).toList();
+        assertEquals(variantIds.stream().sorted().toList(), variantIds);
+    }
+
+    private static ProductVariant variant(Product product, String value) {
+        return ProductVariant.builder()
+                .product(product)
+                .variantName("Size")
+                .variantValue(value)
+                .price(product.getBasePrice())
+                .stockQuantity(5)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.craftycorner.service;
+
+import com.craftycorner.dto.product.ProductDTO;
+import com.craftycorner.event.ProductChangedEvent;
+import com.craftycorner.event.VendorChangedEvent;
+import com.craftycorner.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class StorefrontCatalogTest {
+
+    private ProductReadService productReadService;
+    private ProductRepository productRepository;
+    private StorefrontCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        productReadService = mock(ProductReadService.class);
+        productRepository = mock(ProductRepository.class);
+        catalog = new StorefrontCatalog(productReadService, productRepository);
+
+        when(productReadService.getActiveCatalog()).thenReturn(List.of(product(1L, "Scarf"), product(2L, "Mug")));
+        catalog.load();
+    }
+
+    @Test
+    void servesSnapshotWithoutDatabaseReads() {
+        List<ProductDTO> first = catalog.getProducts();
+        List<ProductDTO> second = catalog.getProducts();
+
+        assertSame(first, second);
+        assertEquals(List.of(1L, 2L), first.stream().map(ProductDTO::getId).toList());
+        verify(productReadService, times(1)).getActiveCatalog();
+    }
+
+    @Test
+    void productChangesReplaceOnlyAffectedEntries() {
+        List<ProductDTO> before = catalog.getProducts();
+        when(productReadService.getActiveCatalogByIds(List.of(2L, 3L))).thenReturn(List.of(product(3L, "Quilt")));
+
+        catalog.onProductChanged(new ProductChangedEvent(List.of(2L, 3L)));
+
+        assertEquals(List.of(1L, 3L), catalog.getProducts().stream().map(ProductDTO::getId).toList());
+        assertSame(before.get(0), catalog.getProducts().get(0));
+        assertEquals(2, catalog.getVersion());
+        assertEquals(2, before.size());
+    }
+
+    @Test
+    void vendorRejectionDropsItsProducts() {
+        when(productRepository.findIdsByVendorId(9L)).thenReturn(List.of(1L));
+        when(productReadService.getActiveCatalogByIds(anyCollection())).thenReturn(List.of());
+
+        catalog.onVendorChanged(new VendorChangedEvent(9L));
+
+        assertEquals(List.of(2L), catalog.getProducts().stream().map(ProductDTO::getId).toList());
+    }
+
+    private static ProductDTO product(Long id, String title) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setTitle(title);
+        return dto;
+    }
+}
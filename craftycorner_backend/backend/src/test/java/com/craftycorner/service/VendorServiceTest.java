@@ -0,0 +1,73 @@
+package com.craftycorner.service;
+
+import com.craftycorner.dto.vendor.VendorProfileUpdateRequest;
+import com.craftycorner.event.VendorChangedEvent;
+import com.craftycorner.model.OnboardingStatus;
+import com.craftycorner.model.User;
+import com.craftycorner.model.VendorProfile;
+import com.craftycorner.repository.ProductRepository;
+import com.craftycorner.repository.RoleRepository;
+import com.craftycorner.repository.UserRepository;
+import com.craftycorner.repository.VendorProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class VendorServiceTest {
+
+    private VendorProfileRepository vendorProfileRepository;
+    private ProductRepository productRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private VendorService vendorService;
+
+    @BeforeEach
+    void setUp() {
+        vendorProfileRepository = mock(VendorProfileRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        productRepository = mock(ProductRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        vendorService = new VendorService(vendorProfileRepository, userRepository, mock(RoleRepository.class),
+                productRepository, eventPublisher);
+
+        User user = User.builder().id(3L).name("maker").email("maker@example.com").password("x").build();
+        VendorProfile profile = VendorProfile.builder()
+                .id(7L)
+                .shopName("Maker Studio")
+                .bio("Knots")
+                .onboardingStatus(OnboardingStatus.APPROVED)
+                .user(user)
+                .build();
+        when(userRepository.findByEmail("maker@example.com")).thenReturn(Optional.of(user));
+        when(vendorProfileRepository.findByUserId(3L)).thenReturn(Optional.of(profile));
+        when(vendorProfileRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void profileEditsWithoutRenameLeaveProductsAlone() {
+        vendorService.updateMyProfile("maker@example.com", update("Maker Studio", "Knots and weaves"));
+
+        verify(productRepository, never()).touchByVendorId(anyLong(), any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void renameTouchesTheVendorsProducts() {
+        vendorService.updateMyProfile("maker@example.com", update("Knot Studio", "Knots"));
+
+        verify(productRepository).touchByVendorId(eq(7L), any());
+        verify(eventPublisher).publishEvent(any(VendorChangedEvent.class));
+    }
+
+    private static VendorProfileUpdateRequest update(String shopName, String bio) {
+        VendorProfileUpdateRequest request = new VendorProfileUpdateRequest();
+        request.setShopName(shopName);
+        request.setBio(bio);
+        return request;
+    }
+}